@@ -0,0 +1,67 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.MemberBulkLoader;
+
+/**
+ * id 생성 방식별 insert 처리량 (ops/s = 초당 insert 건수, MemberBulkLoader JPA 경로)
+ * none/1      : 기존 @GeneratedValue(AUTO) -> MySQL은 hibernate_sequence 한 행을 insert마다 조회/갱신
+ * pooled/100  : DB 시퀀스를 블록마다 한 번만 조회 (DB 값이 블록의 끝)
+ * pooled-lo/100 : 위와 같고 DB 값이 블록의 시작
+ * H2(MySQL 모드) 메모리 DB라 네트워크 왕복이 없으므로 실제 MySQL보다 차이가 작게 나온다.
+ */
+@State(Scope.Benchmark)
+public class InsertBenchmark {
+
+    private static final int MEMBERS = 1000;
+
+    @Param({"none:1", "pooled:100", "pooled-lo:100"})
+    public String generator;
+
+    private ConfigurableApplicationContext context;
+    private MemberBulkLoader bulkLoader;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String[] setting = generator.split(":");
+        //application.yml의 엔티티별 설정(member.block-size)보다 우선하도록 실행 인자로 엔티티마다 지정
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .profiles("benchmark")
+                .run("--querydsl.id.member.optimizer=" + setting[0],
+                        "--querydsl.id.member.block-size=" + setting[1],
+                        "--querydsl.id.team.optimizer=" + setting[0],
+                        "--querydsl.id.team.block-size=" + setting[1]);
+        bulkLoader = context.getBean(MemberBulkLoader.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    //메모리 DB가 계속 커지지 않도록 반복마다 비움
+    @TearDown(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public MemberBulkLoader.Result jpaInsert() {
+        return bulkLoader.load(10, MEMBERS, MemberBulkLoader.Mode.JPA);
+    }
+}
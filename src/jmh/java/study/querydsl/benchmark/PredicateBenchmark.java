@@ -0,0 +1,136 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberQueries.selectFromMember;
+
+/**
+ * 동적 조건 방식별 쿼리 생성 + JPQL 직렬화 비용 (DB 제외)
+ * booleanBuilder : MemberJpaRepository.searchByBuilder
+ * whereParams    : MemberJpaRepository.search / MemberRepositoryImpl.search (null 조건 무시)
+ * allOf          : QuerydslBasicTest.allEq처럼 조건을 하나로 합침 (null이면 빠지도록 Expressions.allOf)
+ * *Build는 JPAQuery까지만, *Jpql은 JPQL 문자열까지 (Hibernate가 받는 형태)
+ */
+@State(Scope.Thread)
+public class PredicateBenchmark {
+
+    //EntityManager 없이 쿼리 생성/직렬화만 (Hibernate와 같은 템플릿)
+    private final JPAQueryFactory queryFactory = new JPAQueryFactory(HQLTemplates.DEFAULT, (EntityManager) null);
+
+    //all: 조건 4개 전부, username: 이름만, none: 조건 없음
+    @Param({"all", "username", "none"})
+    public String condition;
+
+    private String username;
+    private String teamName;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    //TeamIdDictionary.idsOf 결과 대신
+    private final List<Long> teamIds = Collections.singletonList(1L);
+
+    @Setup
+    public void setUp() {
+        username = condition.equals("none") ? null : "member1";
+        teamName = condition.equals("all") ? "teamA" : null;
+        ageGoe = condition.equals("all") ? 20 : null;
+        ageLoe = condition.equals("all") ? 40 : null;
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> booleanBuilderBuild() {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(username)) {
+            builder.and(member.username.eq(username));
+        }
+        if (hasText(teamName)) {
+            builder.and(member.team.id.in(teamIds));
+        }
+        if (ageGoe != null) {
+            builder.and(member.age.goe(ageGoe));
+        }
+        if (ageLoe != null) {
+            builder.and(member.age.loe(ageLoe));
+        }
+        return selectFromMember(queryFactory, projection(), builder);
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> whereParamsBuild() {
+        return selectFromMember(queryFactory, projection(),
+                usernameEq(username),
+                teamIdIn(teamName),
+                ageGoe(ageGoe),
+                ageLoe(ageLoe));
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> allOfBuild() {
+        Predicate where = Expressions.allOf(usernameEq(username), teamIdIn(teamName), ageGoe(ageGoe), ageLoe(ageLoe));
+        return where != null
+                ? selectFromMember(queryFactory, projection(), where)
+                : selectFromMember(queryFactory, projection());
+    }
+
+    @Benchmark
+    public String booleanBuilderJpql() {
+        return jpql(booleanBuilderBuild());
+    }
+
+    @Benchmark
+    public String whereParamsJpql() {
+        return jpql(whereParamsBuild());
+    }
+
+    @Benchmark
+    public String allOfJpql() {
+        return jpql(allOfBuild());
+    }
+
+    private static QMemberTeamDto projection() {
+        return new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+    }
+
+    //JPAQuery.createQuery()가 하는 직렬화와 같음
+    private static String jpql(JPAQuery<?> query) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return serializer.toString();
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamIdIn(String teamName) {
+        return hasText(teamName) ? member.team.id.in(teamIds) : null;
+    }
+
+    private static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.repository.support.CompiledProjections;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 결과 row -> DTO 변환 비용 (QuerydslBasicTest의 프로젝션 방식들, DB 제외)
+ * Querydsl이 row마다 부르는 FactoryExpression.newInstance만 측정한다.
+ */
+@State(Scope.Thread)
+public class ProjectionBenchmark {
+
+    private final FactoryExpression<MemberDto> bean = Projections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> fields = Projections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> queryProjection = new QMemberDto(member.username, member.age);
+    private final FactoryExpression<MemberDto> compiledBean = CompiledProjections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> compiledFields = CompiledProjections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<Tuple> tuple = Projections.tuple(member.username, member.age);
+
+    private final Object[] row = {"member1", 10};
+
+    @Benchmark
+    public MemberDto projectionsBean() {
+        return bean.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto projectionsFields() {
+        return fields.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto projectionsConstructor() {
+        return constructor.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto queryProjection() {
+        return queryProjection.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto compiledBean() {
+        return compiledBean.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDto compiledFields() {
+        return compiledFields.newInstance(row);
+    }
+
+    @Benchmark
+    public Tuple tuple() {
+        return tuple.newInstance(row);
+    }
+}
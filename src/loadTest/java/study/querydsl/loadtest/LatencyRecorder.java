@@ -0,0 +1,87 @@
+package study.querydsl.loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 응답 시간 기록 (스레드마다 하나, 끝나고 합침)
+ * 샘플을 전부 보관했다가 정렬해서 백분위를 구한다. (근사치 없이 빌드 간 비교 가능)
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new HashMap<>();
+
+    void record(String key, long nanos, boolean error) {
+        samples.computeIfAbsent(key, k -> new Samples()).add(nanos, error);
+    }
+
+    void mergeInto(LatencyRecorder total) {
+        samples.forEach((key, value) -> total.samples.computeIfAbsent(key, k -> new Samples()).addAll(value));
+    }
+
+    //키 -> {requests, errors, throughput, p50Ms, p95Ms, p99Ms, maxMs} (키 순서 고정 -> diff 가능)
+    Map<String, Map<String, Object>> summarize(long elapsedNanos) {
+        Map<String, Map<String, Object>> summary = new TreeMap<>();
+        samples.forEach((key, value) -> summary.put(key, value.summarize(elapsedNanos)));
+        return summary;
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long value, boolean error) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        Map<String, Object> summarize(long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", size);
+            result.put("errors", errors);
+            result.put("throughput", round(size * 1_000_000_000.0 / elapsedNanos));
+            result.put("p50Ms", millis(percentile(sorted, 50)));
+            result.put("p95Ms", millis(percentile(sorted, 95)));
+            result.put("p99Ms", millis(percentile(sorted, 99)));
+            result.put("maxMs", millis(size == 0 ? 0 : sorted[size - 1]));
+            return result;
+        }
+
+        //nearest-rank
+        private static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+
+        private static double millis(long nanos) {
+            return round(nanos / 1_000_000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
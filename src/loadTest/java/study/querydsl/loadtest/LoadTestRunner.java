@@ -0,0 +1,156 @@
+package study.querydsl.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.MemberBulkLoader;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * member 검색 API 부하 테스트
+ * 1.loadtest 프로파일(H2 MySQL 모드)로 앱 실행
+ * 2.MemberBulkLoader(MULTI_ROW)로 팀 loadtest.teams개, 회원 loadtest.members개 적재
+ * 3.loadtest.threads개 스레드가 /v1, /v2, /v3에 조건 모양, 페이지 깊이를 섞어서 계속 요청 (Scenario)
+ *   warmup 동안은 기록하지 않고, duration 동안의 결과만 집계
+ * 4.엔드포인트별, 엔드포인트+조건+페이지별 처리량, p50/p95/p99를 JSON으로 저장 (loadtest.output)
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .profiles("loadtest")
+                .run(args);
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("settings", settings.toMap());
+            result.put("dataset", seed(context, settings));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            result.putAll(run("http://localhost:" + port, settings));
+
+            File output = new File(settings.getOutput());
+            output.getAbsoluteFile().getParentFile().mkdirs();
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, result);
+            System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(result.get("endpoints")));
+            System.out.println("결과: " + output.getAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Map<String, Object> seed(ConfigurableApplicationContext context, LoadTestSettings settings) {
+        MemberBulkLoader.Result loaded = context.getBean(MemberBulkLoader.class)
+                .load(settings.getTeams(), settings.getMembers(), MemberBulkLoader.Mode.MULTI_ROW);
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("rows", loaded.getRows());
+        seed.put("seconds", loaded.getElapsedNanos() / 1_000_000_000.0);
+        return seed;
+    }
+
+    private static Map<String, Object> run(String baseUrl, LoadTestSettings settings) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        long measureFrom = System.nanoTime() + settings.getWarmup().toNanos();
+        long end = measureFrom + settings.getDuration().toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getThreads());
+        List<Future<Worker>> workers = new ArrayList<>();
+        for (int t = 0; t < settings.getThreads(); t++) {
+            Worker worker = new Worker(client, baseUrl, settings, new Random(settings.getSeed() + t), measureFrom, end);
+            workers.add(executor.submit(worker));
+        }
+
+        LatencyRecorder byEndpoint = new LatencyRecorder();
+        LatencyRecorder byScenario = new LatencyRecorder();
+        try {
+            for (Future<Worker> future : workers) {
+                Worker worker = future.get();
+                worker.byEndpoint.mergeInto(byEndpoint);
+                worker.byScenario.mergeInto(byScenario);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = end - measureFrom;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoints", byEndpoint.summarize(elapsed));
+        result.put("scenarios", byScenario.summarize(elapsed));
+        return result;
+    }
+
+    //스레드 하나: end까지 요청을 보내고 응답 시간 기록
+    private static final class Worker implements Callable<Worker> {
+
+        private final HttpClient client;
+        private final String baseUrl;
+        private final LoadTestSettings settings;
+        private final Random random;
+        private final long measureFrom;
+        private final long end;
+        private final LatencyRecorder byEndpoint = new LatencyRecorder();
+        private final LatencyRecorder byScenario = new LatencyRecorder();
+
+        Worker(HttpClient client, String baseUrl, LoadTestSettings settings, Random random, long measureFrom, long end) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.settings = settings;
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        @Override
+        public Worker call() {
+            long sent;
+            while ((sent = System.nanoTime()) < end) {
+                Scenario scenario = Scenario.random(random, settings);
+                boolean error = !send(scenario);
+                long received = System.nanoTime();
+
+                //warmup이 끝난 뒤 보내서 end 전에 받은 요청만 기록
+                if (sent >= measureFrom && received <= end) {
+                    byEndpoint.record(scenario.getEndpoint(), received - sent, error);
+                    byScenario.record(scenario.getKey(), received - sent, error);
+                }
+            }
+            return this;
+        }
+
+        private boolean send(Scenario scenario) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + scenario.getPath()))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
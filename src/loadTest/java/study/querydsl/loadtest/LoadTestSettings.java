@@ -0,0 +1,97 @@
+package study.querydsl.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정 (시스템 프로퍼티 loadtest.*)
+ * ex) ./gradlew loadTest -Dloadtest.members=2000000 -Dloadtest.threads=32 -Dloadtest.duration=2m
+ */
+final class LoadTestSettings {
+
+    private final int teams = intValue("loadtest.teams", 1000);
+    private final long members = Long.parseLong(value("loadtest.members", "1000000"));
+    private final int threads = intValue("loadtest.threads", 16);
+    private final Duration warmup = duration("loadtest.warmup", "15s");
+    private final Duration duration = duration("loadtest.duration", "60s");
+    private final int pageSize = intValue("loadtest.page-size", 20);
+    private final List<Integer> pageDepths = intList("loadtest.page-depths", "0,10,100,1000");
+    //같은 시드면 같은 요청 순서 (스레드별로 seed + 스레드 번호)
+    private final long seed = Long.parseLong(value("loadtest.seed", "42"));
+    private final String output = value("loadtest.output", "build/loadtest/result.json");
+
+    int getTeams() {
+        return teams;
+    }
+
+    long getMembers() {
+        return members;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    List<Integer> getPageDepths() {
+        return pageDepths;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    String getOutput() {
+        return output;
+    }
+
+    //결과 파일에 같이 기록 (빌드 간 비교할 때 조건이 같은지 확인용)
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("teams", teams);
+        map.put("members", members);
+        map.put("threads", threads);
+        map.put("warmup", warmup.toString());
+        map.put("duration", duration.toString());
+        map.put("pageSize", pageSize);
+        map.put("pageDepths", pageDepths);
+        map.put("seed", seed);
+        return map;
+    }
+
+    private static String value(String key, String defaultValue) {
+        return System.getProperty(key, defaultValue).trim();
+    }
+
+    private static int intValue(String key, int defaultValue) {
+        return Integer.parseInt(value(key, String.valueOf(defaultValue)));
+    }
+
+    private static Duration duration(String key, String defaultValue) {
+        return DurationStyle.detectAndParse(value(key, defaultValue));
+    }
+
+    private static List<Integer> intList(String key, String defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        for (String value : value(key, defaultValue).split(",")) {
+            values.add(Integer.parseInt(value.trim()));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 요청 한 건 (엔드포인트 + MemberSearchCondition 모양 + 페이지 깊이)
+ * 데이터는 MemberBulkLoader 규칙 (member{i}, 나이 i % 100, 팀 team{i % teams})
+ */
+final class Scenario {
+
+    static final List<String> ENDPOINTS = Arrays.asList("/v1/members", "/v2/members", "/v3/members");
+
+    enum Shape {
+        //조건 없음 (전체)
+        NONE(false),
+        //이름 일치 -> 1건
+        USERNAME(true),
+        //팀 하나 -> members / teams 건
+        TEAM(true),
+        //나이 10살 구간 -> 전체의 10%
+        AGE(false),
+        //팀 + 나이 구간
+        TEAM_AGE(true);
+
+        //결과가 작음 -> 페이징 없는 /v1에도 사용
+        private final boolean selective;
+
+        Shape(boolean selective) {
+            this.selective = selective;
+        }
+    }
+
+    private final String endpoint;
+    private final Shape shape;
+    //v1은 -1 (페이징 없음)
+    private final int page;
+    private final String query;
+
+    private Scenario(String endpoint, Shape shape, int page, String query) {
+        this.endpoint = endpoint;
+        this.shape = shape;
+        this.page = page;
+        this.query = query;
+    }
+
+    static Scenario random(Random random, LoadTestSettings settings) {
+        String endpoint = ENDPOINTS.get(random.nextInt(ENDPOINTS.size()));
+        boolean paged = !endpoint.equals("/v1/members");
+
+        Shape[] shapes = Shape.values();
+        Shape shape;
+        do {
+            shape = shapes[random.nextInt(shapes.length)];
+        } while (!paged && !shape.selective);
+
+        StringBuilder query = new StringBuilder();
+        int age = random.nextInt(90);
+        switch (shape) {
+            case USERNAME:
+                query.append("&username=member").append(nextLong(random, settings.getMembers()));
+                break;
+            case TEAM:
+                query.append("&teamName=team").append(random.nextInt(settings.getTeams()));
+                break;
+            case AGE:
+                query.append("&ageGoe=").append(age).append("&ageLoe=").append(age + 10);
+                break;
+            case TEAM_AGE:
+                query.append("&teamName=team").append(random.nextInt(settings.getTeams()))
+                        .append("&ageGoe=").append(age).append("&ageLoe=").append(age + 10);
+                break;
+            default:
+                break;
+        }
+
+        int page = -1;
+        if (paged) {
+            List<Integer> depths = settings.getPageDepths();
+            page = depths.get(random.nextInt(depths.size()));
+            query.append("&page=").append(page).append("&size=").append(settings.getPageSize());
+        }
+        return new Scenario(endpoint, shape, page, query.length() == 0 ? "" : "?" + query.substring(1));
+    }
+
+    private static long nextLong(Random random, long bound) {
+        return (random.nextLong() & Long.MAX_VALUE) % bound;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    String getPath() {
+        return endpoint + query;
+    }
+
+    //결과 집계 키 (값은 빼고 모양만)
+    String getKey() {
+        String key = endpoint + " " + shape.name().toLowerCase();
+        return page < 0 ? key : key + " page=" + page;
+    }
+}
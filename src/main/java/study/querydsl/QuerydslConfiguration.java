@@ -3,6 +3,8 @@ package study.querydsl;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import study.querydsl.repository.support.ReadOnlyJPAQueryFactory;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -13,8 +15,15 @@ public class QuerydslConfiguration {
     @PersistenceContext
     private EntityManager entityManager;
     @Bean
+    @Primary
     public JPAQueryFactory jpaQueryFactory() {
         return new JPAQueryFactory(entityManager);
     }
 
+    //조회 전용 -> 스냅샷, dirty checking 없이 엔티티 로딩 (ReadOnlyJPAQueryFactory 참고)
+    @Bean
+    public ReadOnlyJPAQueryFactory readOnlyQueryFactory() {
+        return new ReadOnlyJPAQueryFactory(entityManager);
+    }
+
 }
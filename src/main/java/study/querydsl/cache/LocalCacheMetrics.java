@@ -0,0 +1,52 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.Collections;
+
+/**
+ * 2차 캐시 리전 메트릭 (cache.gets{result=hit|miss}, cache.puts, cache.evictions, cache.size, cache.hit.rate)
+ * 태그 cache=리전 이름
+ */
+class LocalCacheMetrics extends CacheMeterBinder<LocalCacheStorage> {
+
+    LocalCacheMetrics(LocalCacheStorage storage) {
+        super(storage, storage.getRegionName(), Collections.singletonList(Tag.of("cacheManager", "hibernate")));
+    }
+
+    @Override
+    protected Long size() {
+        return getCache() == null ? null : getCache().size();
+    }
+
+    @Override
+    protected long hitCount() {
+        return getCache() == null ? 0 : getCache().hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getCache() == null ? null : getCache().missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return getCache() == null ? null : getCache().evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return getCache() == null ? 0 : getCache().putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.hit.rate", getCache(), LocalCacheStorage::hitRate)
+                .tags(getTagsWithCacheName())
+                .description("Ratio of cache gets that were hits")
+                .register(registry);
+    }
+}
@@ -0,0 +1,145 @@
+package study.querydsl.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 2차 캐시 리전 하나의 저장소 (프로세스 내 메모리)
+ * maxEntries를 넘으면 가장 오래 안 쓴 항목부터 제거(LRU), ttl이 지난 항목은 조회 시점에 제거한다.
+ * maxEntries <= 0 이면 크기 제한 없음, ttlNanos <= 0 이면 만료 없음.
+ */
+public class LocalCacheStorage implements DomainDataStorageAccess {
+
+    private final String regionName;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Object, CacheEntry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalCacheStorage(String regionName, int maxEntries, long ttlNanos) {
+        this.regionName = regionName;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        //accessOrder = true -> 조회할 때마다 맨 뒤로, 맨 앞이 가장 오래 안 쓴 항목
+        this.entries = new LinkedHashMap<Object, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CacheEntry> eldest) {
+                if (LocalCacheStorage.this.maxEntries > 0 && size() > LocalCacheStorage.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Object value = get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        entries.put(key, new CacheEntry(value, System.nanoTime() + ttlNanos));
+        puts.increment();
+    }
+
+    @Override
+    public synchronized void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clearCache(SharedSessionContractImplementor session) {
+        entries.clear();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized void evictData() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void evictData(Object key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void release() {
+        entries.clear();
+    }
+
+    private synchronized Object get(Object key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && entry.expiresAt - System.nanoTime() < 0) {
+            entries.remove(key);
+            evictions.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    //조회 중 캐시에서 찾은 비율, 조회가 없으면 0
+    public double hitRate() {
+        long hit = hitCount();
+        long total = hit + missCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private static final class CacheEntry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        private CacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프로세스 내 메모리 2차 캐시 (Hibernate RegionFactory)
+ * 엔티티/컬렉션/쿼리 결과 리전은 LocalCacheStorage(LRU + TTL)에 저장한다.
+ *
+ * 쿼리 캐시용 timestamps 리전은 제한 없이 둔다.
+ * -> timestamps가 빠지면 Hibernate는 해당 테이블이 안 바뀐 것으로 보고 오래된 쿼리 결과를 그대로 쓰기 때문
+ */
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Map<String, LocalCacheStorage> regions = new ConcurrentHashMap<>();
+
+    public LocalRegionFactory(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    //상위 클래스 시그니처가 raw Map
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(LocalCacheStorage::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return bounded(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return bounded(regionName);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return register(new LocalCacheStorage(regionName, 0, 0));
+    }
+
+    public Collection<LocalCacheStorage> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+
+    //없으면 null
+    public LocalCacheStorage getRegion(String regionName) {
+        return regions.get(regionName);
+    }
+
+    private LocalCacheStorage bounded(String regionName) {
+        return register(new LocalCacheStorage(regionName, maxEntries, ttl.toNanos()));
+    }
+
+    private LocalCacheStorage register(LocalCacheStorage storage) {
+        regions.put(storage.getRegionName(), storage);
+        return storage;
+    }
+}
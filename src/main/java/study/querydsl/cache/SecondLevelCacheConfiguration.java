@@ -0,0 +1,42 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 2차 캐시 설정
+ * Hibernate가 RegionFactory를 직접 만들지 않고, 여기서 만든 인스턴스를 쓰게 해서 리전 통계를 메트릭으로 노출한다.
+ * 캐시 대상은 엔티티에 @Cache로 지정 (Team)
+ * Member.changeTeam은 member.team_id만 바꾸므로 캐시된 Team 상태(컬렉션 제외)는 그대로 유효하다.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+    @Bean
+    public LocalRegionFactory localRegionFactory(@Value("${querydsl.second-level-cache.max-entries:10000}") int maxEntries,
+                                                 @Value("${querydsl.second-level-cache.ttl:10m}") Duration ttl) {
+        return new LocalRegionFactory(maxEntries, ttl);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(LocalRegionFactory regionFactory) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, regionFactory);
+        };
+    }
+
+    //리전은 EntityManagerFactory가 만들어질 때 생기므로 싱글톤 생성이 끝난 뒤 메트릭 등록
+    @Bean
+    public SmartInitializingSingleton secondLevelCacheMetrics(LocalRegionFactory regionFactory, MeterRegistry meterRegistry) {
+        return () -> regionFactory.getRegions()
+                .forEach(region -> new LocalCacheMetrics(region).bindTo(meterRegistry));
+    }
+}
@@ -4,21 +4,37 @@ package study.querydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.InvalidCursorException;
+import study.querydsl.repository.support.KeysetPage;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    //키셋 페이지 최대 크기 (한 번에 너무 많이 읽지 않도록)
+    private static final int MAX_KEYSET_SIZE = 100;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExporter memberExporter;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
@@ -35,4 +51,45 @@ public class MemberController {
         return memberRepository.searchPageComplex(condition,pageable);
     }
 
+    //무한 스크롤용 -> 전체 개수 없이 hasNext만 (count 쿼리 안 나감)
+    @GetMapping("/v3/members/slice")
+    public Slice<MemberTeamDto> searchMemberSlice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition,pageable);
+    }
+
+    //키셋 페이징 -> 응답의 nextCursor를 cursor 파라미터로 넘기면 다음 페이지
+    @GetMapping("/v4/members")
+    public KeysetPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_KEYSET_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size는 1~" + MAX_KEYSET_SIZE + " 사이여야 합니다: " + size);
+        }
+        return memberRepository.searchKeyset(condition, cursor, size);
+    }
+
+    //리포지토리에서 InvalidDataAccessApiUsageException으로 감싸져 와도 원인 예외로 매칭됨
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> invalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    //전체 export -> 메모리에 모으지 않고 커서로 읽으면서 바로 씀 (format=ndjson|csv, 그 외는 400)
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(MemberSearchCondition condition,
+                                                        @RequestParam(defaultValue = "ndjson") String format) {
+        if (!"ndjson".equalsIgnoreCase(format) && !"csv".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv: " + format);
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"members.csv\"")
+                    .body(out -> memberExporter.writeCsv(condition, out));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> memberExporter.writeNdjson(condition, out));
+    }
+
 }
@@ -0,0 +1,102 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 회원 export (NDJSON, CSV)
+ * 결과를 List로 모으지 않고 커서로 읽은 row를 바로 응답 스트림에 쓴다.
+ */
+@Component
+public class MemberExporter {
+
+    private static final String CSV_HEADER = "memberId,username,age,teamId,teamName";
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int clearInterval;
+
+    public MemberExporter(MemberJpaRepository memberJpaRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${querydsl.export.fetch-size:1000}") int fetchSize,
+                          @Value("${querydsl.export.clear-interval:1000}") int clearInterval) {
+        Assert.isTrue(fetchSize > 0, "querydsl.export.fetch-size must be positive: " + fetchSize);
+        Assert.isTrue(clearInterval > 0, "querydsl.export.clear-interval must be positive: " + clearInterval);
+        this.memberJpaRepository = memberJpaRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+    }
+
+    //한 줄에 json 하나, 마지막 줄도 줄바꿈으로 끝남 (row마다 flush하지 않음)
+    public void writeNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            memberJpaRepository.scroll(condition, fetchSize, clearInterval, dto -> {
+                try {
+                    writer.writeValue(generator, dto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    public void writeCsv(MemberSearchCondition condition, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        memberJpaRepository.scroll(condition, fetchSize, clearInterval, dto -> {
+            try {
+                writeCsvRow(writer, dto);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, MemberTeamDto dto) throws IOException {
+        writer.write(String.valueOf(dto.getMemberId()));
+        writer.write(',');
+        writer.write(csv(dto.getUsername()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getAge()));
+        writer.write(',');
+        writer.write(dto.getTeamId() == null ? "" : String.valueOf(dto.getTeamId()));
+        writer.write(',');
+        writer.write(csv(dto.getTeamName()));
+        writer.write('\n');
+    }
+
+    //쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
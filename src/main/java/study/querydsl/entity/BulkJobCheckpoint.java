@@ -0,0 +1,53 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * ChunkedBulkExecutor 작업 진행 상태
+ * 청크를 처리한 트랜잭션에서 같이 갱신되므로, 중간에 죽어도 마지막으로 커밋된 청크 다음부터 다시 시작할 수 있다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkJobCheckpoint {
+
+    @Id
+    private String name;
+    //처리가 끝난 마지막 id (null이면 처음부터)
+    private Long lastId;
+    private long processedRows;
+    private int chunks;
+    private boolean completed;
+
+    public BulkJobCheckpoint(String name) {
+        this.name = name;
+    }
+
+    public void advance(Long lastId, long rows) {
+        this.lastId = lastId;
+        this.processedRows += rows;
+        this.chunks++;
+    }
+
+    //마지막 청크 (lastId 이후 남은 전부)
+    public void complete(long rows) {
+        this.processedRows += rows;
+        this.chunks++;
+        this.completed = true;
+    }
+
+    //끝난 작업을 같은 이름으로 다시 실행 -> 처음부터
+    public void restart() {
+        this.lastId = null;
+        this.processedRows = 0;
+        this.chunks = 0;
+        this.completed = false;
+    }
+}
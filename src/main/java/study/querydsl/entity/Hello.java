@@ -4,6 +4,10 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.id.PooledIdGenerator;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -14,8 +18,11 @@ import javax.persistence.Id;
 @Setter
 public class Hello {
 
+    //querydsl.id.hello.*
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "hello_seq")
+    @GenericGenerator(name = "hello_seq", strategy = PooledIdGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hello_seq"))
     private Long id;
 
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.id.PooledIdGenerator;
 
 import javax.persistence.*;
 
@@ -9,10 +13,14 @@ import javax.persistence.*;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id","username","age"})
+@NamedEntityGraph(name = "Member.team", attributeNodes = @NamedAttributeNode("team"))
 public class Member{
 
+    //id를 블록 단위(querydsl.id.member.*)로 미리 받아두고 메모리에서 할당 -> insert마다 시퀀스 조회 안 함, JDBC 배치 가능
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledIdGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name="member_id")
     private Long id;
     private String username;
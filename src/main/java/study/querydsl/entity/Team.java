@@ -1,6 +1,12 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.id.PooledIdGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,13 +17,19 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id","name"})
+@NamedEntityGraph(name = "Team.members", attributeNodes = @NamedAttributeNode("members"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 public class Team {
+    //Member와 같이 블록 단위 할당 (querydsl.id.team.*)
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq")
+    @GenericGenerator(name = "team_seq", strategy = PooledIdGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    //컬렉션은 캐시하지 않음 -> 캐시된 id로 Member를 한 건씩 다시 읽게 되어 배치 페치보다 느림
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,27 @@
+package study.querydsl.id;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Collections;
+
+/**
+ * querydsl.id.* 설정을 Hibernate 설정으로 넘긴다.
+ * PooledIdGenerator는 엔티티 매핑 시점에 Hibernate 설정에서 블록 크기/optimizer를 읽는다.
+ */
+@Configuration
+public class IdGenerationConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer idGenerationCustomizer(Environment environment) {
+        //중첩된 키는 "member.block-size"처럼 펼쳐서 바인딩됨
+        return properties -> Binder.get(environment)
+                .bind("querydsl.id", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap())
+                .forEach((key, value) -> properties.put(PooledIdGenerator.PREFIX + key, value));
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 엔티티별로 블록 크기, optimizer를 설정에서 읽는 시퀀스 id 생성기
+ * DB 시퀀스(MySQL은 시퀀스 테이블)는 블록마다 한 번만 조회하고, 블록 안의 id는 메모리에서 할당한다.
+ *
+ * 설정 (IdGenerationConfiguration이 querydsl.id.*를 Hibernate 설정으로 넘김)
+ *   querydsl.id.optimizer, querydsl.id.block-size : 기본값
+ *   querydsl.id.{엔티티 이름 소문자}.optimizer, .block-size : 엔티티별 (ex. querydsl.id.member.block-size)
+ * optimizer: pooled (DB 값이 블록의 끝), pooled-lo (DB 값이 블록의 시작), none (insert마다 조회, block-size는 1이어야 함)
+ *
+ * 블록 크기는 DB 시퀀스의 증가값과 같아야 한다. (다르면 다른 노드와 id가 겹침)
+ * 시퀀스를 지원하는 DB는 Hibernate가 시작할 때 검사해서 실패하지만, MySQL의 시퀀스 테이블은 검사하지 않으므로
+ * 운영 DB에서 블록 크기를 바꿀 때는 모든 노드를 같이 바꿔야 한다.
+ */
+public class PooledIdGenerator extends SequenceStyleGenerator {
+
+    //@GenericGenerator(strategy = ...)에 사용
+    public static final String STRATEGY = "study.querydsl.id.PooledIdGenerator";
+
+    static final String PREFIX = "querydsl.id.";
+    static final String DEFAULT_OPTIMIZER = StandardOptimizerDescriptor.POOLED.getExternalName();
+    static final int DEFAULT_BLOCK_SIZE = 100;
+
+    private static final String NONE = StandardOptimizerDescriptor.NONE.getExternalName();
+
+    private static final List<String> OPTIMIZERS = Arrays.asList(
+            StandardOptimizerDescriptor.POOLED.getExternalName(),
+            StandardOptimizerDescriptor.POOLED_LO.getExternalName(),
+            NONE);
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String entity = params.getProperty(IdentifierGenerator.JPA_ENTITY_NAME).toLowerCase();
+
+        String optimizer = setting(settings, entity, "optimizer", DEFAULT_OPTIMIZER);
+        int blockSize = Integer.parseInt(setting(settings, entity, "block-size", String.valueOf(DEFAULT_BLOCK_SIZE)));
+        if (!OPTIMIZERS.contains(optimizer)) {
+            throw new MappingException(entity + " id optimizer는 " + OPTIMIZERS + " 중 하나: " + optimizer);
+        }
+        if (blockSize < 1 || (blockSize > 1 && optimizer.equals(NONE))) {
+            throw new MappingException(entity + " id block-size가 잘못됨: " + blockSize + " (optimizer=" + optimizer + ")");
+        }
+
+        params.setProperty(OPT_PARAM, optimizer);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        super.configure(type, params, serviceRegistry);
+    }
+
+    //엔티티별 설정 -> 기본 설정 -> 코드 기본값
+    private static String setting(Map<?, ?> settings, String entity, String name, String defaultValue) {
+        Object value = settings.get(PREFIX + entity + "." + name);
+        if (value == null) {
+            value = settings.get(PREFIX + name);
+        }
+        return value != null ? value.toString().trim() : defaultValue;
+    }
+}
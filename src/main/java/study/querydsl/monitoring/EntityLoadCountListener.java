@@ -0,0 +1,39 @@
+package study.querydsl.monitoring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 엔티티가 영속성 컨텍스트에 로드될 때마다 StatementCounter 구간에 기록 (Hibernate POST_LOAD 이벤트)
+ */
+@Component
+public class EntityLoadCountListener implements PostLoadEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final EntityManagerFactory emf;
+
+    public EntityLoadCountListener(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        StatementCounter.recordEntityLoad();
+    }
+}
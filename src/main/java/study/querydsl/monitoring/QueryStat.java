@@ -0,0 +1,35 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 쿼리 모양 하나의 누적 통계 (QueryStatistics 스냅샷)
+ * 시간은 execute 시간 기준, fetchMillis는 결과 row를 읽는 데 걸린 시간(ResultSet.next) 합계
+ */
+@Getter
+public class QueryStat {
+
+    private final String fingerprint;
+    private final long calls;
+    private final double totalMillis;
+    private final double meanMillis;
+    private final double maxMillis;
+    private final double fetchMillis;
+    private final long rows;
+    //"<=1ms" -> 건수 (마지막 구간은 "+Inf")
+    private final Map<String, Long> histogram;
+
+    QueryStat(String fingerprint, long calls, double totalMillis, double maxMillis, double fetchMillis,
+              long rows, Map<String, Long> histogram) {
+        this.fingerprint = fingerprint;
+        this.calls = calls;
+        this.totalMillis = totalMillis;
+        this.meanMillis = calls == 0 ? 0 : totalMillis / calls;
+        this.maxMillis = maxMillis;
+        this.fetchMillis = fetchMillis;
+        this.rows = rows;
+        this.histogram = histogram;
+    }
+}
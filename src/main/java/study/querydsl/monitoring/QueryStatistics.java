@@ -0,0 +1,126 @@
+package study.querydsl.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 쿼리 모양(SqlFingerprint)별 누적 통계: 호출 수, 총/평균/최대 시간, row 수, 시간 히스토그램
+ * JDBC 실행마다 불리므로 락 없이 기록한다.
+ * - 카운터는 LongAdder(스레드별로 나눠서 더함), 최대값은 LongAccumulator, 히스토그램은 AtomicLongArray
+ * - 원본 SQL -> 통계 항목을 캐시해서 정규화(정규식)는 SQL 문자열마다 처음 한 번만 한다.
+ *
+ * 모양 수는 max-fingerprints개로 제한 (넘으면 OTHER 한 곳에 합산)
+ * reset()은 맵을 비우기만 하므로 동시에 기록 중이던 몇 건은 빠질 수 있다.
+ */
+@Component
+public class QueryStatistics {
+
+    public static final String OTHER = "<other>";
+
+    //ms
+    private static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final int maxFingerprints;
+    private final ConcurrentMap<String, Entry> bySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Entry> byFingerprint = new ConcurrentHashMap<>();
+
+    public QueryStatistics(@Value("${querydsl.query-stats.max-fingerprints:1000}") int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    void recordExecution(String sql, long nanos) {
+        entryOf(sql).recordExecution(nanos);
+    }
+
+    void recordRows(String sql, long rows) {
+        entryOf(sql).rows.add(rows);
+    }
+
+    void recordFetch(String sql, long nanos, boolean row) {
+        Entry entry = entryOf(sql);
+        entry.fetchNanos.add(nanos);
+        if (row) {
+            entry.rows.increment();
+        }
+    }
+
+    //총 시간 순
+    public List<QueryStat> getStats() {
+        List<QueryStat> stats = new ArrayList<>();
+        byFingerprint.forEach((fingerprint, entry) -> stats.add(entry.toStat(fingerprint)));
+        stats.sort(Comparator.comparingDouble(QueryStat::getTotalMillis).reversed());
+        return stats;
+    }
+
+    public void reset() {
+        bySql.clear();
+        byFingerprint.clear();
+    }
+
+    private Entry entryOf(String sql) {
+        Entry entry = bySql.get(sql);
+        if (entry != null) {
+            return entry;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        if (byFingerprint.size() >= maxFingerprints && !byFingerprint.containsKey(fingerprint)) {
+            fingerprint = OTHER;
+        }
+        entry = byFingerprint.computeIfAbsent(fingerprint, key -> new Entry());
+        //IN 리스트 길이 등으로 원본 SQL 종류는 모양보다 많을 수 있어서 캐시도 제한
+        if (bySql.size() < maxFingerprints * 4) {
+            bySql.putIfAbsent(sql, entry);
+        }
+        return entry;
+    }
+
+    private static class Entry {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder fetchNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length + 1);
+
+        void recordExecution(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+
+        QueryStat toStat(String fingerprint) {
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < histogram.length(); i++) {
+                buckets.put(i < BUCKETS.length ? "<=" + BUCKETS[i] + "ms" : "+Inf", histogram.get(i));
+            }
+            return new QueryStat(fingerprint, calls.sum(), millis(totalNanos.sum()), millis(maxNanos.get()),
+                    millis(fetchNanos.sum()), rows.sum(), buckets);
+        }
+
+        private static int bucketOf(long millis) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (millis <= BUCKETS[i]) {
+                    return i;
+                }
+            }
+            return BUCKETS.length;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
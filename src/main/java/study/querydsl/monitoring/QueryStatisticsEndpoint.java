@@ -0,0 +1,40 @@
+package study.querydsl.monitoring;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/querystats?limit=20: 쿼리 모양별 통계 (총 시간 순)
+ * DELETE /actuator/querystats: 초기화 (배포, 인덱스 변경 전후 비교)
+ */
+@Component
+@Endpoint(id = "querystats")
+public class QueryStatisticsEndpoint {
+
+    private final QueryStatistics queryStatistics;
+
+    public QueryStatisticsEndpoint(QueryStatistics queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    //음수 limit은 400
+    @ReadOperation
+    public List<QueryStat> queryStats(@Nullable Integer limit) {
+        if (limit != null && limit < 0) {
+            throw new InvalidEndpointRequestException("limit must not be negative: " + limit, "limit must not be negative");
+        }
+        List<QueryStat> stats = queryStatistics.getStats();
+        return limit == null || limit >= stats.size() ? stats : stats.subList(0, limit);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryStatistics.reset();
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 -> QueryStatistics
+ * 실행 시간은 execute 계열 전부, row 수는 SELECT면 ResultSet.next()로 읽은 row, 수정이면 변경된 row 수
+ */
+@Component
+public class QueryStatisticsListener extends SimpleJdbcEventListener {
+
+    private final QueryStatistics queryStatistics;
+
+    public QueryStatisticsListener(QueryStatistics queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        queryStatistics.recordExecution(statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+        queryStatistics.recordRows(statementInformation.getSql(), Math.max(rowCount, 0));
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        queryStatistics.recordRows(statementInformation.getSql(), Math.max(rowCount, 0));
+    }
+
+    //드라이버가 건수를 모르면 SUCCESS_NO_INFO(-2) -> 0으로 셈
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+        if (updateCounts != null) {
+            long rows = 0;
+            for (int count : updateCounts) {
+                rows += Math.max(count, 0);
+            }
+            queryStatistics.recordRows(statementInformation.getSql(), rows);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        queryStatistics.recordFetch(resultSetInformation.getSql(), timeElapsedNanos, hasNext);
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.monitoring;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 스레드별 리포지토리 메서드 호출 구간 (RepositoryMetricsAspect가 연다)
+ * 페이징 메서드가 count를 실제로 실행했는지, count에 걸린 시간을 기록한다.
+ *
+ * PageableExecutionUtils.getPage 에 넘기는 count를 trackCount()로 감싸면
+ * getPage가 count를 건너뛰었는지(첫 페이지 + 컨텐츠 < 사이즈, 마지막 페이지) 알 수 있다.
+ */
+public final class RepositoryInvocation {
+
+    private static final ThreadLocal<RepositoryInvocation> CURRENT = new ThreadLocal<>();
+
+    private final RepositoryInvocation parent;
+    //ex) MemberRepositoryImpl.searchPageComplex
+    private final String method;
+    private boolean countTracked;
+    private boolean countExecuted;
+    private long countNanos;
+
+    private RepositoryInvocation(RepositoryInvocation parent, String method) {
+        this.parent = parent;
+        this.method = method;
+    }
+
+    static RepositoryInvocation open(String method) {
+        RepositoryInvocation invocation = new RepositoryInvocation(CURRENT.get(), method);
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    static void close(RepositoryInvocation invocation) {
+        if (CURRENT.get() != invocation) {
+            throw new IllegalStateException("열린 순서와 반대로 닫아야 함: " + invocation);
+        }
+        if (invocation.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(invocation.parent);
+        }
+    }
+
+    //현재 스레드에서 실행 중인 가장 안쪽 리포지토리 메서드 (없으면 null)
+    public static String currentMethod() {
+        RepositoryInvocation invocation = CURRENT.get();
+        return invocation == null ? null : invocation.method;
+    }
+
+    //getPage를 부르는 스레드에서 감싸야 함 (열린 구간이 없으면 그대로 반환)
+    public static LongSupplier trackCount(LongSupplier count) {
+        RepositoryInvocation invocation = CURRENT.get();
+        if (invocation == null) {
+            return count;
+        }
+        invocation.countTracked = true;
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return count.getAsLong();
+            } finally {
+                invocation.countExecuted = true;
+                invocation.countNanos += System.nanoTime() - start;
+            }
+        };
+    }
+
+    //trackCount로 감싼 count가 있었는지 (Page를 만든 메서드인지)
+    boolean isCountTracked() {
+        return countTracked;
+    }
+
+    boolean isCountExecuted() {
+        return countExecuted;
+    }
+
+    //병렬 count(ParallelCountExecutor)면 count 쿼리 시간이 아니라 결과를 기다린 시간
+    long getCountNanos() {
+        return countNanos;
+    }
+}
@@ -0,0 +1,173 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.KeysetPage;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드별 메트릭 (MemberJpaRepository, MemberRepositoryImpl, MemberTestRepository)
+ * repository.invocations: 실행 시간 히스토그램 (태그 shape: 검색 조건 중 값이 있는 필드, page: 페이지 깊이 구간)
+ * repository.rows: 반환한 row 수 (List, Page, Slice, KeysetPage)
+ * repository.statements: 메서드 한 번에 실행된 JDBC statement 수
+ * repository.count: count 쿼리 시간 (실제로 실행된 경우만)
+ * repository.count.decisions: Page를 만들 때 count를 실행했는지(executed), 건너뛰었는지(skipped)
+ *
+ * /actuator/metrics/repository.invocations?tag=method:searchPageComplex 처럼 조회.
+ * 같은 요청의 http.server.requests 시간에서 리포지토리 시간을 빼면 나머지(직렬화 등)가 된다.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    //Spring Data 프록시(memberRepository)는 대상이 이 패키지 클래스가 아니라서 제외 -> 커스텀 메서드는 Impl에서 한 번만 기록
+    @Around("within(study.querydsl.repository.*) && (bean(*Repository) || bean(*RepositoryImpl))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Tags tags = Tags.of("repository", repository, "method", method);
+        String shape = shapeOf(joinPoint.getArgs());
+
+        RepositoryInvocation invocation = RepositoryInvocation.open(repository + "." + method);
+        StatementStats statements = StatementCounter.open();
+        String exception = "none";
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(tags.and("shape", shape), result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            StatementCounter.close(statements);
+            RepositoryInvocation.close(invocation);
+
+            Timer.builder("repository.invocations")
+                    .description("Repository method latency")
+                    .tags(tags)
+                    .tags("shape", shape, "page", pageOf(joinPoint.getArgs()), "exception", exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("repository.statements")
+                    .description("JDBC statements per repository method call")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statements.getCount());
+            recordCount(tags, invocation);
+        }
+    }
+
+    private void recordRows(Tags tags, Object result) {
+        long rows = rowsOf(result);
+        if (rows < 0) {
+            return;
+        }
+        DistributionSummary.builder("repository.rows")
+                .description("Rows returned per repository method call")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    private void recordCount(Tags tags, RepositoryInvocation invocation) {
+        if (!invocation.isCountTracked()) {
+            return;
+        }
+        meterRegistry.counter("repository.count.decisions",
+                tags.and("count", invocation.isCountExecuted() ? "executed" : "skipped")).increment();
+        if (invocation.isCountExecuted()) {
+            Timer.builder("repository.count")
+                    .description("Count query latency (or wait time when run in parallel)")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(invocation.getCountNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    //row 목록이 아닌 반환값(단건, count, 벌크 수정 건수)은 -1
+    static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof KeysetPage) {
+            return ((KeysetPage<?>) result).getContent().size();
+        }
+        return -1;
+    }
+
+    /**
+     * 검색 조건(이름이 ~Condition인 인자)에서 값이 있는 필드 이름
+     * ex) teamName=teamA, ageGoe=10 -> "ageGoe+teamName", 다 비어 있으면 "none", 조건 인자가 없으면 "-"
+     * 값 대신 필드 이름만 쓰므로 태그 종류가 조건 필드 조합 수로 제한된다.
+     */
+    static String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg != null && arg.getClass().getSimpleName().endsWith("Condition")) {
+                return conditionShape(arg);
+            }
+        }
+        return "-";
+    }
+
+    private static String conditionShape(Object condition) {
+        StringJoiner shape = new StringJoiner("+");
+        //getPropertyDescriptors는 이름순 + 클래스별로 캐시됨
+        for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(condition.getClass())) {
+            Method getter = property.getReadMethod();
+            if (getter == null || getter.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            try {
+                Object value = getter.invoke(condition);
+                if (value != null && !(value instanceof String && ((String) value).isBlank())) {
+                    shape.add(property.getName());
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("검색 조건 읽기 실패: " + property.getName(), e);
+            }
+        }
+        return shape.length() == 0 ? "none" : shape.toString();
+    }
+
+    //페이지 번호는 구간으로 (깊은 페이지일수록 offset 비용이 커짐)
+    static String pageOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Pageable) {
+                Pageable pageable = (Pageable) arg;
+                if (pageable.isUnpaged()) {
+                    return "unpaged";
+                }
+                int page = pageable.getPageNumber();
+                return page == 0 ? "0" : page < 10 ? "1-9" : page < 100 ? "10-99" : "100+";
+            }
+        }
+        return "-";
+    }
+}
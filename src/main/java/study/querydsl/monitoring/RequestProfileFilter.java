@@ -0,0 +1,255 @@
+package study.querydsl.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * querydsl.profile.enabled=true일 때, 요청 헤더 X-Debug-Profile이 있는 요청만 처리 비용을 응답 헤더로 붙인다.
+ * 내부 DB 시간, statement 수가 노출되고 본문을 메모리에 모으므로 기본은 꺼져 있다. (로컬, 테스트에서만 켬)
+ * X-Profile-Allocated-Bytes: 요청 스레드가 할당한 바이트 (ThreadMXBean, JSON 직렬화 포함)
+ * X-Profile-Statements: JDBC statement 수
+ * X-Profile-DB-Time-Ms: statement 실행 시간 합
+ * X-Profile-Entities-Loaded: 영속성 컨텍스트에 로드된 엔티티 수
+ *
+ * 직렬화까지 재려고 본문을 버퍼에 모았다가 헤더를 붙인 뒤 내보낸다.
+ * 본문이 max-buffer-size를 넘으면 그 시점부터 버퍼 없이 그대로 내보내고 헤더는 붙이지 않는다.
+ * 비동기로 넘어간 요청(/members/export)이나 non-blocking 쓰기(setWriteListener)로 바뀐 요청은
+ * 그 시점부터 버퍼 없이 그대로 내보내고 헤더는 붙이지 않는다.
+ * 요청 스레드만 재므로 ParallelCountExecutor의 count 쿼리는 빠진다.
+ */
+@Component
+public class RequestProfileFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Profile";
+    public static final String ALLOCATED_BYTES_HEADER = "X-Profile-Allocated-Bytes";
+    public static final String STATEMENTS_HEADER = "X-Profile-Statements";
+    public static final String DB_TIME_HEADER = "X-Profile-DB-Time-Ms";
+    public static final String ENTITIES_LOADED_HEADER = "X-Profile-Entities-Loaded";
+
+    private final com.sun.management.ThreadMXBean threads = allocationCounter();
+    private final boolean enabled;
+    private final int maxBufferSize;
+
+    public RequestProfileFilter(@Value("${querydsl.profile.enabled:false}") boolean enabled,
+                                @Value("${querydsl.profile.max-buffer-size:1MB}") DataSize maxBufferSize) {
+        this.enabled = enabled;
+        this.maxBufferSize = Math.toIntExact(maxBufferSize.toBytes());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        if (!enabled || request.getHeader(DEBUG_HEADER) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = allocatedBytes(threadId);
+        StatementStats stats = StatementCounter.open();
+        BufferedResponse buffered = new BufferedResponse(response, maxBufferSize);
+        try {
+            chain.doFilter(request, buffered);
+        } finally {
+            StatementCounter.close(stats);
+            if (!request.isAsyncStarted() && !buffered.isReleased()) {
+                long allocated = allocatedBytes(threadId) - allocatedBefore;
+                if (allocatedBefore >= 0) {
+                    response.setHeader(ALLOCATED_BYTES_HEADER, String.valueOf(allocated));
+                }
+                response.setIntHeader(STATEMENTS_HEADER, stats.getCount());
+                response.setHeader(DB_TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getDbNanos())));
+                response.setIntHeader(ENTITIES_LOADED_HEADER, stats.getEntitiesLoaded());
+            }
+            buffered.release();
+        }
+    }
+
+    //HotSpot이 아니거나 꺼져 있으면 -1 (헤더 생략)
+    private long allocatedBytes(long threadId) {
+        return threads == null ? -1 : threads.getThreadAllocatedBytes(threadId);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * release() 전까지는 본문을 메모리에 모으고, 이후에는 원래 응답으로 바로 쓴다.
+     * 모은 본문이 maxSize를 넘게 되면 그 자리에서 release()
+     * 비동기 스레드가 쓰는 도중에 release()될 수 있어서 쓰기와 전환은 동기화한다.
+     */
+    private static class BufferedResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final int maxSize;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean released;
+
+        BufferedResponse(HttpServletResponse response, int maxSize) {
+            super(response);
+            this.maxSize = maxSize;
+        }
+
+        synchronized boolean isReleased() {
+            return released;
+        }
+
+        synchronized void release() throws IOException {
+            if (released) {
+                return;
+            }
+            //writer에 남은 글자를 먼저 버퍼로 보낸 뒤 전환
+            if (writer != null) {
+                writer.flush();
+            }
+            releaseBuffer();
+        }
+
+        private synchronized void releaseBuffer() throws IOException {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (buffer.size() > 0) {
+                getResponse().getOutputStream().write(buffer.toByteArray());
+                buffer.reset();
+            }
+        }
+
+        private synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            if (!released && buffer.size() + length > maxSize) {
+                releaseBuffer();
+            }
+            if (released) {
+                getResponse().getOutputStream().write(bytes, offset, length);
+            } else {
+                buffer.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        BufferedResponse.this.write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        BufferedResponse.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (isReleased()) {
+                            getResponse().getOutputStream().flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        try {
+                            return !isReleased() || getResponse().getOutputStream().isReady();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    //non-blocking 쓰기는 컨테이너가 직접 관리해야 하므로 모아둔 본문을 내보내고 원래 스트림에 넘긴다. (프로파일 헤더 없음)
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        try {
+                            release();
+                            getResponse().getOutputStream().setWriteListener(listener);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        //버퍼에 있는 동안은 커밋하지 않음 (헤더를 아직 붙여야 함)
+        @Override
+        public void flushBuffer() throws IOException {
+            if (isReleased()) {
+                super.flushBuffer();
+            } else if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public synchronized void resetBuffer() {
+            buffer.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.reset();
+            super.reset();
+        }
+
+        //에러 응답은 컨테이너가 새로 쓰므로 모아둔 본문은 버림
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            discard();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            discard();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+
+        private synchronized void discard() {
+            buffer.reset();
+            released = true;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 느린 쿼리 한 건 (같은 모양의 SQL 중 가장 느렸던 실행)
+ * plan은 EXPLAIN이 끝나기 전이거나 SELECT가 아니면 null
+ */
+@Getter
+public class SlowQuery {
+
+    private final String shape;
+    private final String sql;
+    //리포지토리 밖에서 실행됐으면 null
+    private final String method;
+    private final long elapsedMillis;
+    private final Instant capturedAt;
+    private final long occurrences;
+    private final List<Map<String, Object>> plan;
+
+    SlowQuery(String shape, String sql, String method, long elapsedMillis, Instant capturedAt,
+              long occurrences, List<Map<String, Object>> plan) {
+        this.shape = shape;
+        this.sql = sql;
+        this.method = method;
+        this.elapsedMillis = elapsedMillis;
+        this.capturedAt = capturedAt;
+        this.occurrences = occurrences;
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 -> 실행 시간이 threshold 이상이면 SlowQueryLog에 기록
+ * 실패한 statement는 기록하지 않는다.
+ */
+@Component
+public class SlowQueryListener extends SimpleJdbcEventListener {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryListener(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        //getSqlWithValues()는 SQL을 다시 조립하므로 느린 statement에서만 필요할 때 호출
+        if (e == null && slowQueryLog.isSlow(timeElapsedNanos)) {
+            slowQueryLog.record(statementInformation.getSql(), statementInformation::getSqlWithValues, timeElapsedNanos);
+        }
+    }
+}
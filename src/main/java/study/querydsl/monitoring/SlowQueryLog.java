@@ -0,0 +1,180 @@
+package study.querydsl.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * threshold 이상 걸린 statement 중 가장 느린 capacity개 (SQL 모양별로 한 건씩)
+ * 꽉 차면 가장 빠른 항목을 밀어낸다. threshold보다 빠른 statement는 락 없이 바로 반환.
+ *
+ * SELECT는 별도 스레드, 별도 커넥션에서 값이 바인딩된 SQL로 EXPLAIN을 실행해서 같이 보관한다.
+ * (실행 중인 커넥션은 결과를 아직 읽는 중일 수 있어서 쓰지 않음, 대기 작업이 밀리면 EXPLAIN은 버림)
+ *
+ * 바인딩 값(회원 이름 등)은 querydsl.slow-query.include-values=true일 때만 로그와 엔드포인트에 남긴다.
+ * 기본은 ?가 그대로인 SQL. (EXPLAIN 실행에만 값을 쓰고 보관하지 않음)
+ */
+@Slf4j
+@Component
+public class SlowQueryLog implements DisposableBean {
+
+    //EXPLAIN 스레드에서 나간 쿼리는 다시 기록하지 않음
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> false);
+
+    //리스너 -> p6spy DataSource 데코레이터 순서로 먼저 만들어지므로 DataSource는 EXPLAIN할 때 꺼냄
+    private final ObjectProvider<DataSource> dataSource;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explain;
+    private final boolean includeValues;
+    private final ThreadPoolExecutor explainer;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public SlowQueryLog(ObjectProvider<DataSource> dataSource,
+                        @Value("${querydsl.slow-query.threshold:200ms}") Duration threshold,
+                        @Value("${querydsl.slow-query.capacity:50}") int capacity,
+                        @Value("${querydsl.slow-query.explain:true}") boolean explain,
+                        @Value("${querydsl.slow-query.include-values:false}") boolean includeValues) {
+        this.dataSource = dataSource;
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.explain = explain;
+        this.includeValues = includeValues;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("slow-query-explain-");
+        threadFactory.setDaemon(true);
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    //빠른 statement는 여기서 끝 (바인딩 값 SQL을 만들지 않음)
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos && !EXPLAINING.get();
+    }
+
+    //값이 바인딩된 SQL은 보관하거나 EXPLAIN할 때만 만든다
+    void record(String sql, Supplier<String> sqlWithValues, long elapsedNanos) {
+        if (!isSlow(elapsedNanos)) {
+            return;
+        }
+        boolean explainSelect = explain && isSelect(sql);
+        String boundSql = includeValues || explainSelect ? sqlWithValues.get() : null;
+        String shape = StatementCounter.shapeOf(sql);
+        Entry entry = new Entry(shape, includeValues ? boundSql : sql, RepositoryInvocation.currentMethod(), elapsedNanos);
+        synchronized (this) {
+            Entry existing = entries.get(shape);
+            if (existing != null) {
+                existing.occurrences++;
+                if (existing.elapsedNanos >= elapsedNanos) {
+                    return;
+                }
+                entry.occurrences = existing.occurrences;
+            } else if (entries.size() >= capacity) {
+                Entry fastest = Collections.min(entries.values(), Comparator.comparingLong(e -> e.elapsedNanos));
+                if (fastest.elapsedNanos >= elapsedNanos) {
+                    return;
+                }
+                entries.remove(fastest.shape);
+            }
+            entries.put(shape, entry);
+        }
+        log.warn("느린 쿼리 {}ms ({}): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), entry.method, entry.sql);
+        if (explainSelect) {
+            explainer.execute(() -> entry.plan = explain(boundSql));
+        }
+    }
+
+    //느린 순서
+    public synchronized List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> result = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            result.add(entry.toSlowQuery());
+        }
+        result.sort(Comparator.comparingLong(SlowQuery::getElapsedMillis).reversed());
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private List<Map<String, Object>> explain(String sql) {
+        EXPLAINING.set(true);
+        try (Connection connection = dataSource.getObject().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            List<Map<String, Object>> rows = new ArrayList<>();
+            while (rs.next()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    row.put(meta.getColumnLabel(i), rs.getObject(i));
+                }
+                rows.add(row);
+            }
+            return rows;
+        } catch (SQLException e) {
+            log.info("EXPLAIN 실패: {}", e.getMessage());
+            return Collections.singletonList(Collections.singletonMap("error", e.getMessage()));
+        } finally {
+            EXPLAINING.set(false);
+        }
+    }
+
+    //use_sql_comments로 앞에 붙는 /* JPQL */ 주석은 건너뛰고 판단
+    static boolean isSelect(String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.startsWith("/*") && trimmed.contains("*/")) {
+            trimmed = trimmed.substring(trimmed.indexOf("*/") + 2).trim();
+        }
+        return trimmed.regionMatches(true, 0, "select", 0, 6);
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+
+    private static class Entry {
+        private final String shape;
+        private final String sql;
+        private final String method;
+        private final long elapsedNanos;
+        private final Instant capturedAt = Instant.now();
+        private long occurrences = 1;
+        private volatile List<Map<String, Object>> plan;
+
+        Entry(String shape, String sql, String method, long elapsedNanos) {
+            this.shape = shape;
+            this.sql = sql;
+            this.method = method;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        SlowQuery toSlowQuery() {
+            return new SlowQuery(shape, sql, method, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), capturedAt, occurrences, plan);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.monitoring;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL -> 값이 빠진 모양 (pg_stat_statements의 정규화와 같은 목적)
+ * 1.주석 제거 (use_sql_comments로 붙는 JPQL 주석)
+ * 2.문자열, 숫자 리터럴 -> ?
+ * 3.IN (?, ?, ...) -> IN (?), multi-row VALUES (...), (...) -> VALUES (...)
+ * 4.공백 정리 + 소문자
+ *
+ * Hibernate는 값을 바인딩 파라미터로 보내므로 대부분 1, 4만으로 같아지고,
+ * 2, 3은 Querydsl 상수 인라인, IN 리스트 길이 차이, MemberBulkLoader의 multi-row insert 때문에 필요하다.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/|--[^\\n]*", Pattern.DOTALL);
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    //member0_, team1_ 같은 alias 안의 숫자는 제외
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin \\(\\?(?:, ?\\?)*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("\\bvalues (\\([^()]*\\))(?:, ?\\([^()]*\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalized = COMMENT.matcher(sql).replaceAll(" ");
+        normalized = STRING.matcher(normalized).replaceAll("?");
+        normalized = NUMBER.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase();
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        return VALUES_LIST.matcher(normalized).replaceAll("values $1");
+    }
+}
@@ -0,0 +1,143 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * HTTP 요청별 JDBC statement 수 집계
+ * 응답 헤더 (querydsl.statements.headers=true일 때만, 내부 정보라 기본은 꺼짐, 테스트에서 켬)
+ *   X-Statement-Count (본문을 쓰기 시작한 시점까지의 statement 수)
+ *   X-Statement-Max-Repeats (같은 SQL이 가장 많이 반복된 횟수)
+ * 메트릭: jdbc.statements (요청당 statement 수, 요청 전체 기준)
+ *        jdbc.statements.repeated (같은 SQL이 repeat-threshold번 이상 나간 요청 수 -> N+1 의심)
+ */
+@Slf4j
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Statement-Count";
+    public static final String MAX_REPEATS_HEADER = "X-Statement-Max-Repeats";
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+    private final boolean headers;
+
+    public StatementCountFilter(MeterRegistry meterRegistry,
+                                @Value("${querydsl.statements.repeat-threshold:5}") int repeatThreshold,
+                                @Value("${querydsl.statements.headers:false}") boolean headers) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        StatementStats stats = StatementCounter.open();
+        //헤더를 안 붙이면 응답을 감싸지 않음
+        HeaderWritingResponse wrapped = headers ? new HeaderWritingResponse(response, stats) : null;
+        try {
+            chain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            StatementCounter.close(stats);
+            if (wrapped != null) {
+                wrapped.writeHeaders();
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, StatementStats stats) {
+        String uri = uriOf(request);
+        DistributionSummary.builder("jdbc.statements")
+                .description("JDBC statements per request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getCount());
+
+        if (stats.getMaxRepeats() >= repeatThreshold) {
+            meterRegistry.counter("jdbc.statements.repeated", "uri", uri).increment();
+            log.warn("N+1 의심: {} {} -> 같은 SQL {}번 실행 (전체 {}번): {}",
+                    request.getMethod(), uri, stats.getMaxRepeats(), stats.getCount(), stats.getMostRepeated());
+        }
+    }
+
+    //메트릭 태그가 무한히 늘어나지 않도록 실제 URI 대신 매핑 패턴 사용
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * 본문을 쓰기 시작하면(커밋 전) 그때까지의 카운트를 헤더로 넣는다.
+     * 본문이 없는 응답은 요청이 끝난 뒤 넣는다.
+     */
+    private static class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private final StatementStats stats;
+        private boolean headersWritten;
+
+        HeaderWritingResponse(HttpServletResponse response, StatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setIntHeader(COUNT_HEADER, stats.getCount());
+            setIntHeader(MAX_REPEATS_HEADER, stats.getMaxRepeats());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
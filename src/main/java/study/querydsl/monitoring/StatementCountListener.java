@@ -0,0 +1,20 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 -> statement 실행(execute, executeQuery, executeUpdate, executeBatch)마다 StatementCounter에 기록 (실행 시간 포함)
+ * p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동으로 등록한다.
+ */
+@Component
+public class StatementCountListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        StatementCounter.record(statementInformation.getSql(), timeElapsedNanos);
+    }
+}
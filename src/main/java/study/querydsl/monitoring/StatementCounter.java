@@ -0,0 +1,57 @@
+package study.querydsl.monitoring;
+
+/**
+ * 스레드별 JDBC statement 카운트 구간
+ * open()으로 연 구간 안에서 실행된 statement를 StatementCountListener가 기록한다.
+ *
+ * ex) StatementStats stats = StatementCounter.open();
+ *     try { ... } finally { StatementCounter.close(stats); }
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static StatementStats open() {
+        StatementStats stats = new StatementStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void close(StatementStats stats) {
+        if (CURRENT.get() != stats) {
+            throw new IllegalStateException("열린 순서와 반대로 닫아야 함: " + stats);
+        }
+        if (stats.getParent() == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats.getParent());
+        }
+    }
+
+    //열린 구간이 없으면 null
+    public static StatementStats current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        StatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(shapeOf(sql), elapsedNanos);
+        }
+    }
+
+    static void recordEntityLoad() {
+        StatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.recordEntityLoad();
+        }
+    }
+
+    //PreparedStatement SQL은 값이 ?라서 공백만 정리하면 같은 쿼리끼리 모양이 같음
+    static String shapeOf(String sql) {
+        return sql == null ? "" : sql.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.monitoring;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 한 구간(HTTP 요청, 테스트)에서 실행된 JDBC statement 수
+ * 같은 모양(shape)의 SQL이 몇 번 나갔는지도 센다. -> 같은 쿼리가 여러 번 = N+1 의심
+ * 구간을 연 스레드에서만 쓰므로 동기화하지 않는다.
+ */
+public class StatementStats {
+
+    private final StatementStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int count;
+    private long dbNanos;
+    private int entitiesLoaded;
+
+    StatementStats(StatementStats parent) {
+        this.parent = parent;
+    }
+
+    StatementStats getParent() {
+        return parent;
+    }
+
+    //중첩된 구간이면 바깥 구간에도 같이 기록
+    void record(String shape, long elapsedNanos) {
+        for (StatementStats stats = this; stats != null; stats = stats.parent) {
+            stats.count++;
+            stats.dbNanos += elapsedNanos;
+            stats.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    void recordEntityLoad() {
+        for (StatementStats stats = this; stats != null; stats = stats.parent) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    //statement 실행 시간 합 (결과 row를 읽는 시간은 제외)
+    public long getDbNanos() {
+        return dbNanos;
+    }
+
+    //영속성 컨텍스트에 로드된 엔티티 수 (2차 캐시에서 꺼낸 것 포함, DTO 프로젝션은 제외)
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    //가장 많이 반복된 SQL의 실행 횟수
+    public int getMaxRepeats() {
+        int max = 0;
+        for (int repeats : shapes.values()) {
+            max = Math.max(max, repeats);
+        }
+        return max;
+    }
+
+    public String getMostRepeated() {
+        String most = null;
+        int max = 0;
+        for (Map.Entry<String, Integer> entry : shapes.entrySet()) {
+            if (entry.getValue() > max) {
+                most = entry.getKey();
+                max = entry.getValue();
+            }
+        }
+        return most;
+    }
+
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    @Override
+    public String toString() {
+        return "StatementStats{count=" + count + ", maxRepeats=" + getMaxRepeats() + ", mostRepeated=" + getMostRepeated() + "}";
+    }
+}
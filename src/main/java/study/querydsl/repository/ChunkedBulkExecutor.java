@@ -0,0 +1,232 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.BulkJobCheckpoint;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.function.Consumer;
+
+/**
+ * 큰 테이블의 벌크 수정/삭제를 id 범위 청크로 나눠서 실행
+ * update(...).where(...).execute() 한 번이면 끝날 때까지 row 락을 잡고 undo 로그가 커지므로
+ * id 순서로 chunk-size개씩 잘라서 청크마다 별도 트랜잭션으로 커밋한다.
+ *
+ * 청크: select id ... where 조건 and id > lastId order by id offset chunk-size - 1 limit 1 로 청크의 끝 id를 구하고
+ *      update/delete ... where 조건 and id > lastId and id <= 끝 id 실행 (끝 id가 없으면 마지막 청크)
+ * 진행 상태는 BulkJobCheckpoint에 청크와 같은 트랜잭션으로 저장 -> 같은 작업 이름으로 다시 실행하면 이어서 처리
+ * 체크포인트 row를 비관적 락으로 잡으므로 같은 작업이 동시에 두 번 돌지 않는다.
+ * rows-per-second가 0보다 크면 처리 속도가 그 이하가 되도록 청크 사이에 쉰다.
+ *
+ * 영속성 컨텍스트, TeamIdDictionary는 정리하지 않는다. (별도 트랜잭션이므로 호출한 쪽 영속성 컨텍스트와 무관)
+ */
+@Slf4j
+@Component
+public class ChunkedBulkExecutor {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final int defaultChunkSize;
+    private final int defaultRowsPerSecond;
+
+    public ChunkedBulkExecutor(EntityManager em,
+                               JPAQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${querydsl.bulk.chunk-size:1000}") int defaultChunkSize,
+                               @Value("${querydsl.bulk.rows-per-second:0}") int defaultRowsPerSecond) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        //바깥 트랜잭션이 있어도 청크마다 커밋
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultChunkSize = defaultChunkSize;
+        this.defaultRowsPerSecond = defaultRowsPerSecond;
+    }
+
+    public Job update(String name, EntityPath<?> target, NumberPath<Long> id, Predicate predicate, Consumer<JPAUpdateClause> changes) {
+        return new Job(name, target, id, predicate, changes);
+    }
+
+    public Job delete(String name, EntityPath<?> target, NumberPath<Long> id, Predicate predicate) {
+        return new Job(name, target, id, predicate, null);
+    }
+
+    private Progress run(Job job) {
+        long start = System.nanoTime();
+        BulkJobCheckpoint started = chunkTransaction.execute(status -> begin(job.name));
+        long resumedRows = started.getProcessedRows();
+        if (started.getLastId() != null) {
+            log.info("bulk job {} 이어서 실행: {}", job.name, started);
+        }
+
+        Progress progress;
+        do {
+            BulkJobCheckpoint checkpoint = chunkTransaction.execute(status -> runChunk(job));
+            progress = new Progress(checkpoint, checkpoint.getProcessedRows() - resumedRows, System.nanoTime() - start);
+            log.debug("bulk job {}", progress);
+            if (job.onProgress != null) {
+                job.onProgress.accept(progress);
+            }
+            throttle(progress, job.rowsPerSecond);
+        } while (!progress.isCompleted());
+
+        log.info("bulk job 완료: {}", progress);
+        return progress;
+    }
+
+    private BulkJobCheckpoint begin(String name) {
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, name, LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint == null) {
+            checkpoint = new BulkJobCheckpoint(name);
+            em.persist(checkpoint);
+        } else if (checkpoint.isCompleted()) {
+            checkpoint.restart();
+        }
+        return checkpoint;
+    }
+
+    private BulkJobCheckpoint runChunk(Job job) {
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, job.name, LockModeType.PESSIMISTIC_WRITE);
+        Long lastId = checkpoint.getLastId();
+        BooleanExpression after = lastId != null ? job.id.gt(lastId) : null;
+
+        Long upperId = queryFactory
+                .select(job.id)
+                .from(job.target)
+                .where(job.predicate, after)
+                .orderBy(job.id.asc())
+                .offset(job.chunkSize - 1)
+                .fetchFirst();
+        BooleanExpression range = upperId != null ? job.id.loe(upperId) : null;
+
+        long rows = job.changes != null
+                ? applyChanges(queryFactory.update(job.target).where(job.predicate, after, range), job.changes)
+                : queryFactory.delete(job.target).where(job.predicate, after, range).execute();
+
+        if (upperId != null) {
+            checkpoint.advance(upperId, rows);
+        } else {
+            checkpoint.complete(rows);
+        }
+        return checkpoint;
+    }
+
+    private static long applyChanges(JPAUpdateClause update, Consumer<JPAUpdateClause> changes) {
+        changes.accept(update);
+        return update.execute();
+    }
+
+    //지금까지 처리한 row 수 기준으로 rowsPerSecond를 넘지 않게 대기
+    private static void throttle(Progress progress, int rowsPerSecond) {
+        if (rowsPerSecond <= 0 || progress.isCompleted()) {
+            return;
+        }
+        long expectedNanos = progress.getRows() * 1_000_000_000L / rowsPerSecond;
+        long waitMillis = (expectedNanos - progress.getElapsedNanos()) / 1_000_000;
+        if (waitMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(waitMillis);
+        } catch (InterruptedException e) {
+            //체크포인트까지는 커밋되어 있으므로 다시 실행하면 이어서 처리
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulk job 중단: " + progress, e);
+        }
+    }
+
+    /**
+     * 실행할 작업
+     * ex) executor.delete("delete-adults", member, member.id, member.age.gt(18)).chunkSize(500).execute()
+     */
+    public class Job {
+
+        private final String name;
+        private final EntityPath<?> target;
+        private final NumberPath<Long> id;
+        private final Predicate predicate;
+        private final Consumer<JPAUpdateClause> changes;
+        private int chunkSize = defaultChunkSize;
+        private int rowsPerSecond = defaultRowsPerSecond;
+        private Consumer<Progress> onProgress;
+
+        private Job(String name, EntityPath<?> target, NumberPath<Long> id, Predicate predicate, Consumer<JPAUpdateClause> changes) {
+            this.name = name;
+            this.target = target;
+            this.id = id;
+            this.predicate = predicate;
+            this.changes = changes;
+        }
+
+        public Job chunkSize(int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("chunkSize는 1 이상: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        //0이면 제한 없음
+        public Job rowsPerSecond(int rowsPerSecond) {
+            this.rowsPerSecond = rowsPerSecond;
+            return this;
+        }
+
+        //청크가 커밋될 때마다 호출
+        public Job onProgress(Consumer<Progress> onProgress) {
+            this.onProgress = onProgress;
+            return this;
+        }
+
+        public Progress execute() {
+            return run(this);
+        }
+    }
+
+    @Getter
+    public static class Progress {
+
+        private final String name;
+        private final Long lastId;
+        private final int chunks;
+        //이전 실행분 포함 전체 처리 row 수
+        private final long processedRows;
+        private final boolean completed;
+        //이번 실행에서 처리한 row 수, 걸린 시간
+        private final long rows;
+        private final long elapsedNanos;
+
+        Progress(BulkJobCheckpoint checkpoint, long rows, long elapsedNanos) {
+            this.name = checkpoint.getName();
+            this.lastId = checkpoint.getLastId();
+            this.chunks = checkpoint.getChunks();
+            this.processedRows = checkpoint.getProcessedRows();
+            this.completed = checkpoint.isCompleted();
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: chunks=%d, rows=%d, lastId=%s, completed=%s (%.0f rows/s)",
+                    name, chunks, processedRows, lastId, completed, getRowsPerSecond());
+        }
+    }
+}
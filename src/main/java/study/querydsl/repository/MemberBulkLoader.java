@@ -0,0 +1,156 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 데이터 적재 (부하 테스트, 데이터 이관용)
+ * 팀 teamCount개, 회원 memberCount개를 만들어 넣는다. (회원 i -> 나이 i % 100, 팀 i % teamCount)
+ *
+ * JPA: em.persist + JDBC 배치(hibernate.jdbc.batch_size), batch-size개마다 flush/clear 후 커밋
+ * MULTI_ROW: insert into member values (...), (...), ... 한 문장에 multi-row-size개씩 JDBC로 직접 insert
+ *            id는 Member의 id 생성기(pooled)에서 받으므로 JPA로 넣은 데이터와 겹치지 않는다.
+ *            엔티티 이벤트, 2차 캐시를 거치지 않으므로 새로 넣는 데이터에만 사용
+ *
+ * batch-size개마다 트랜잭션을 나눠서 커밋한다. (이미 트랜잭션이 있으면 참여)
+ */
+@Slf4j
+@Component
+public class MemberBulkLoader {
+
+    public enum Mode {JPA, MULTI_ROW}
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int multiRowSize;
+    private final String multiRowSql;
+
+    public MemberBulkLoader(EntityManager em,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${querydsl.bulk.batch-size:1000}") int batchSize,
+                            @Value("${querydsl.bulk.multi-row-size:500}") int multiRowSize) {
+        //0 이하면 청크가 줄지 않아 끝나지 않으므로 시작할 때 막음
+        Assert.isTrue(batchSize > 0, "querydsl.bulk.batch-size must be positive: " + batchSize);
+        Assert.isTrue(multiRowSize > 0, "querydsl.bulk.multi-row-size must be positive: " + multiRowSize);
+        this.em = em;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.multiRowSize = multiRowSize;
+        this.multiRowSql = multiRowInsert(multiRowSize);
+    }
+
+    public Result load(int teamCount, long memberCount, Mode mode) {
+        Assert.notNull(mode, "Mode must not be null!");
+        Assert.isTrue(teamCount >= 0, "teamCount must not be negative: " + teamCount);
+        Assert.isTrue(memberCount >= 0, "memberCount must not be negative: " + memberCount);
+        //회원은 팀에 나눠 넣으므로 팀이 하나는 있어야 함
+        Assert.isTrue(memberCount == 0 || teamCount > 0, "teamCount must be positive when loading members");
+
+        long start = System.nanoTime();
+        List<Long> teamIds = transactionTemplate.execute(status -> persistTeams(teamCount));
+
+        for (long from = 0; from < memberCount; from += batchSize) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(from + batchSize, memberCount);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (mode == Mode.JPA) {
+                    persistMembers(teamIds, chunkFrom, chunkTo);
+                } else {
+                    insertMembers(teamIds, chunkFrom, chunkTo);
+                }
+            });
+        }
+
+        Result result = new Result(teamCount + memberCount, System.nanoTime() - start);
+        log.info("bulk load {}: teams={}, members={} -> {}", mode, teamCount, memberCount, result);
+        return result;
+    }
+
+    private List<Long> persistTeams(int teamCount) {
+        List<Long> teamIds = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teamIds.add(team.getId());
+        }
+        //바깥 트랜잭션에 참여한 경우에도 MULTI_ROW insert 전에 팀이 DB에 있어야 함 (FK)
+        em.flush();
+        return teamIds;
+    }
+
+    //flush 시점에 hibernate.jdbc.batch_size개씩 묶여서 나감, clear로 영속성 컨텍스트가 커지지 않게
+    private void persistMembers(List<Long> teamIds, long from, long to) {
+        for (long i = from; i < to; i++) {
+            Team team = em.getReference(Team.class, teamIds.get((int) (i % teamIds.size())));
+            em.persist(new Member("member" + i, (int) (i % 100), team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private void insertMembers(List<Long> teamIds, long from, long to) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        IdentifierGenerator idGenerator = session.getFactory().getMetamodel()
+                .entityPersister(Member.class)
+                .getIdentifierGenerator();
+
+        for (long rowFrom = from; rowFrom < to; rowFrom += multiRowSize) {
+            int rows = (int) Math.min(multiRowSize, to - rowFrom);
+            Object[] args = new Object[rows * 4];
+            for (int r = 0; r < rows; r++) {
+                long i = rowFrom + r;
+                args[r * 4] = idGenerator.generate(session, null);
+                args[r * 4 + 1] = (int) (i % 100);
+                args[r * 4 + 2] = teamIds.get((int) (i % teamIds.size()));
+                args[r * 4 + 3] = "member" + i;
+            }
+            jdbcTemplate.update(rows == multiRowSize ? multiRowSql : multiRowInsert(rows), args);
+        }
+    }
+
+    private static String multiRowInsert(int rows) {
+        StringBuilder sql = new StringBuilder("insert into member (member_id, age, team_id, username) values ");
+        for (int r = 0; r < rows; r++) {
+            sql.append(r == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    @Getter
+    public static class Result {
+
+        private final long rows;
+        private final long elapsedNanos;
+
+        Result(long rows, long elapsedNanos) {
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows in %d ms (%.0f rows/s)", rows, elapsedNanos / 1_000_000, getRowsPerSecond());
+        }
+    }
+}
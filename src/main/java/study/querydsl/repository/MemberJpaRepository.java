@@ -7,6 +7,7 @@ import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.MemberSearchCondition;
@@ -15,20 +16,27 @@ import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.ReadOnlyJPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.MemberQueries.selectFromMember;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final ReadOnlyJPAQueryFactory readOnlyQueryFactory;
+    private final MemberSearchTemplates searchTemplates;
+    private final TeamIdDictionary teamIds;
 
     public void save(Member member){
         em.persist(member);
@@ -44,8 +52,9 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    //조회 전용 (read-only 엔티티 -> 스냅샷, dirty checking 없음)
     public List<Member> findAll_Querydsl(){
-        return queryFactory
+        return readOnlyQueryFactory
                 .selectFrom(member)
                 .fetch();
     }
@@ -63,13 +72,16 @@ public class MemberJpaRepository {
     }
 
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition){
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Collections.emptyList();
+        }
 
         BooleanBuilder bulder = new BooleanBuilder();
         if (hasText(condition.getUsername())) {
             bulder.and(member.username.eq(condition.getUsername()));
         }
         if(hasText(condition.getTeamName())){
-            bulder.and(team.name.eq(condition.getTeamName()));
+            bulder.and(member.team.id.in(teamIds.idsOf(condition.getTeamName())));
         }
         if(condition.getAgeGoe() != null) {
             bulder.and(member.age.goe(condition.getAgeGoe()));
@@ -78,47 +90,43 @@ public class MemberJpaRepository {
             bulder.and(member.age.loe(condition.getAgeLoe()));
         }
 
-        return queryFactory
-                .select(new QMemberTeamDto(
+        return selectFromMember(queryFactory, new QMemberTeamDto(
                         member.id,
                         member.username,
                         member.age,
                         team.id,
                         team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(bulder)
+                ), bulder)
                 .fetch();
 
     }
 
 
     public List<MemberTeamDto> search(MemberSearchCondition condition){
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Collections.emptyList();
+        }
+        //조건 모양별로 캐시된 JPQL에 값만 바인딩해서 실행 (MemberSearchTemplates 참고)
+        return searchTemplates.search(condition)
                 .fetch();
     }
 
+    //search와 같은 조건으로 결과를 모으지 않고 한 row씩 넘김 (export용), 넘긴 row 수 반환
+    @Transactional(readOnly = true)
+    public long scroll(MemberSearchCondition condition, int fetchSize, int clearEvery, Consumer<MemberTeamDto> action) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return 0;
+        }
+        return searchTemplates.search(condition)
+                .scroll(fetchSize, clearEvery, action);
+    }
+
     public List<Member> searchMember(MemberSearchCondition condition){
-        return queryFactory
-                .selectFrom(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Collections.emptyList();
+        }
+        return selectFromMember(readOnlyQueryFactory, member,
+                        usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(),condition.getAgeLoe()))
                 .fetch();
@@ -132,8 +140,9 @@ public class MemberJpaRepository {
         return isEmpty(username) ? null : member.username.eq(username);
     }
 
+    //팀 이름 -> team_id로 바꿔서 member의 FK로 조회 (team 조인 필요 없음)
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(teamIds.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
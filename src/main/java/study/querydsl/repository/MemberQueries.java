@@ -0,0 +1,40 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import study.querydsl.repository.support.QueryPaths;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member 기준 쿼리 생성 공통 로직
+ * 프로젝션이나 where 조건에서 team을 참조할 때만 leftJoin(member.team, team)을 추가한다.
+ * ex) teamName 조건이 없는 count 쿼리 -> 조인 없이 member 테이블만 조회
+ *
+ * member -> team은 다대일(to-one) left join이라 조인을 빼도 row 수는 같다.
+ */
+public final class MemberQueries {
+
+    private MemberQueries() {
+    }
+
+    public static <T> JPAQuery<T> selectFromMember(JPAQueryFactory queryFactory, Expression<T> projection, Predicate... where) {
+        JPAQuery<T> query = queryFactory
+                .select(projection)
+                .from(member);
+        if (referencesTeam(projection, where)) {
+            query.leftJoin(member.team, team);
+        }
+        return query.where(where);
+    }
+
+    private static boolean referencesTeam(Expression<?> projection, Predicate... where) {
+        if (QueryPaths.references(team, projection)) {
+            return true;
+        }
+        return QueryPaths.references(team, where);
+    }
+}
@@ -7,64 +7,61 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
-
+import study.querydsl.repository.support.CountStrategy;
+import study.querydsl.repository.support.Keyset;
+import study.querydsl.repository.support.KeysetPage;
+import study.querydsl.repository.support.ParallelCountExecutor;
+import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.repository.support.TotalCount;
+
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.springframework.util.StringUtils.hasText;
 import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberQueries.selectFromMember;
 
 //Impl을 붙일때는 데이터jpa 인터페이스명이랑 똑같은 이름에다 + Impl해줘야함
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final JPAQueryFactory queryFactory;
+    private final ParallelCountExecutor countExecutor;
+    private final CountStrategy countStrategy;
+    private final MemberSearchTemplates searchTemplates;
+    private final TeamIdDictionary teamIds;
+
+    //나이순 키셋 페이징 (나이가 같으면 id순)
+    private static final Keyset<MemberTeamDto> AGE_KEYSET =
+            Keyset.asc(member.age, member.id, MemberTeamDto::getAge, MemberTeamDto::getMemberId);
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Collections.emptyList();
+        }
+        //조건 모양별로 캐시된 JPQL에 값만 바인딩해서 실행 (MemberSearchTemplates 참고)
+        return searchTemplates.search(condition)
                 .fetch();
     }
 
     //spring data jpt + querydsl 페이징 활용
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> result = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Page.empty(pageable);
+        }
+        List<MemberTeamDto> result = searchTemplates.search(condition)
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
@@ -77,20 +74,10 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> result = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Page.empty(pageable);
+        }
+        Supplier<List<MemberTeamDto>> content = () -> searchTemplates.search(condition)
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
@@ -111,19 +98,70 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         //count 쿼리가 생략 가능한 경우 생략해서 처리
         //페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
         //마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
+        //teamName 조건이 없으면 team 조인 없이 member만 count
+        JPAQuery<Member> countQuery = selectFromMember(queryFactory, member,
+                        usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()));
-        return PageableExecutionUtils.getPage(result, pageable,() -> countQuery.fetch().size());
+        //fetch().size()는 엔티티를 전부 조회하므로 select count(...)로 바꿔서 실행
+        //querydsl.parallel-count.enabled=true면 count 쿼리는 별도 스레드에서 컨텐츠 쿼리와 동시에 실행
+        //querydsl.count.strategy=estimate면 결과가 많을 때 count 대신 EXPLAIN 예상값 사용
+        TotalCount total = countStrategy.totalOf(queryFactory, countQuery);
+        return total.mark(countExecutor.getPage(content, pageable, total));
 //      return new PageImpl<>(result,pageable,totalSize);
     }
 
 
+    //count 쿼리 없이 size + 1개만 조회해서 다음 페이지 여부 판단
+    //offset으로 이어 읽으므로 id순으로 정렬해야 페이지끼리 겹치거나 빠지지 않음
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+        List<MemberTeamDto> result = selectFromMember(queryFactory, new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name),
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        return Querydsl4RepositorySupport.toSlice(result, pageable);
+    }
+
+    //offset 대신 커서로 페이징 -> 깊은 페이지도 인덱스 범위 조회 한 번
+    @Override
+    public KeysetPage<MemberTeamDto> searchKeyset(MemberSearchCondition condition, String cursor, int size) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return KeysetPage.empty(size);
+        }
+        List<MemberTeamDto> result = selectFromMember(queryFactory, new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name),
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        AGE_KEYSET.after(cursor)
+                )
+                .orderBy(AGE_KEYSET.orderBy())
+                .limit(KeysetPage.fetchSize(size))
+                .fetch();
+
+        return KeysetPage.of(result, size, AGE_KEYSET);
+    }
 
     private BooleanExpression ageBetween(int ageLoe, int ageGoe){
         return ageGoe(ageLoe).and(ageGoe(ageGoe));
@@ -133,8 +171,9 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         return isEmpty(username) ? null : member.username.eq(username);
     }
 
+    //팀 이름 -> team_id로 바꿔서 member의 FK로 조회 (team 조인 필요 없음)
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(teamIds.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -0,0 +1,108 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.QueryTemplate;
+import study.querydsl.repository.support.QueryTemplateCache;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasLength;
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberQueries.selectFromMember;
+
+/**
+ * 회원 검색 쿼리 템플릿
+ * 조건 값 대신 Param으로 쿼리를 만들고, 조건 유무(shape)별로 한 번만 JPQL로 직렬화해서 캐시한다.
+ * 요청마다는 값 바인딩만 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchTemplates {
+
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Param<List<Long>> TEAM_IDS = new Param<>((Class) List.class, "teamIds");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    private static final int HAS_USERNAME = 1;
+    private static final int HAS_TEAM_NAME = 1 << 1;
+    private static final int HAS_AGE_GOE = 1 << 2;
+    private static final int HAS_AGE_LOE = 1 << 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryTemplateCache templateCache;
+    private final TeamIdDictionary teamIds;
+
+    //teamName 조건은 호출하는 쪽에서 없는 팀(isUnknown)을 먼저 걸러낸다고 가정
+    public QueryTemplate.Binding<MemberTeamDto> search(MemberSearchCondition condition) {
+        int shape = shape(condition);
+        return templateCache.get("member.search", shape, () -> searchQuery(shape))
+                .bind()
+                .set(USERNAME, condition.getUsername())
+                .set(TEAM_IDS, (shape & HAS_TEAM_NAME) != 0 ? teamIds.idsOf(condition.getTeamName()) : null)
+                .set(AGE_GOE, condition.getAgeGoe())
+                .set(AGE_LOE, condition.getAgeLoe());
+    }
+
+    private JPAQuery<MemberTeamDto> searchQuery(int shape) {
+        return selectFromMember(queryFactory, new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name),
+                usernameEq(shape),
+                teamNameEq(shape),
+                ageGoe(shape),
+                ageLoe(shape));
+    }
+
+    private static int shape(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasLength(condition.getUsername())) {
+            shape |= HAS_USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= HAS_TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= HAS_AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= HAS_AGE_LOE;
+        }
+        return shape;
+    }
+
+    private BooleanExpression usernameEq(int shape) {
+        return (shape & HAS_USERNAME) != 0 ? member.username.eq(USERNAME) : null;
+    }
+
+    //다른 리포지토리와 같이 팀 이름을 id 목록으로 바꿔서 member의 FK(team_id)로 비교 (같은 이름의 팀이 여러 개여도 같은 쿼리)
+    private BooleanExpression teamNameEq(int shape) {
+        return (shape & HAS_TEAM_NAME) != 0
+                ? Expressions.booleanOperation(Ops.IN, member.team.id, TEAM_IDS)
+                : null;
+    }
+
+    private BooleanExpression ageGoe(int shape) {
+        return (shape & HAS_AGE_GOE) != 0 ? member.age.goe(AGE_GOE) : null;
+    }
+
+    private BooleanExpression ageLoe(int shape) {
+        return (shape & HAS_AGE_LOE) != 0 ? member.age.loe(AGE_LOE) : null;
+    }
+}
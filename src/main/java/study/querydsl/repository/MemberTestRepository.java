@@ -3,31 +3,46 @@ package study.querydsl.repository;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.FetchPlan;
+import study.querydsl.repository.support.Keyset;
+import study.querydsl.repository.support.KeysetPage;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.springframework.util.StringUtils.hasText;
 import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberQueries.selectFromMember;
+import static study.querydsl.monitoring.RepositoryInvocation.trackCount;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
+    @Autowired
+    private TeamIdDictionary teamIds;
+
     public MemberTestRepository(){
         super(Member.class);
     }
 
+    //조회 전용 (read-only 엔티티)
     public List<Member> basicSelect(){
-        return select(member)
+        return selectReadOnly(member)
                 .from(member)
                 .fetch();
     }
@@ -37,26 +52,36 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                 .fetch();
     }
 
+    //엔티티 그래프로 team까지 한 번에 로딩
+    public List<Member> basicSelectWithTeam() {
+        return withFetchPlan(selectFrom(member), FetchPlan.fetchGraph("Member.team"))
+                .fetch();
+    }
+
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable){
-        JPAQuery<Member> query = selectFrom(member)
-                .leftJoin(member.team,team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Page.empty(pageable);
+        }
+        JPAQuery<Member> query = selectFromMember(getQueryFactory(), member,
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()));
 
         List<Member> content = getQuerydsl().applyPagination(pageable, query)
                 .fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, ()->query.fetch().size());
+        return PageableExecutionUtils.getPage(content, pageable, trackCount(()->fetchCount(query)));
     }
 
     //이게 젤 좋음 //람다식 이용
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Page.empty(pageable);
+        }
         return applyPagination(pageable, query ->
-                query.selectFrom(member)
-                        .where(usernameEq(condition.getUsername()),
+                selectFromMember(query, member,
+                                usernameEq(condition.getUsername()),
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
                                 ageLoe(condition.getAgeLoe())
@@ -67,30 +92,88 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     //이렇게 페이징 처리, 카운트 처리 하는게 젤 좋음
     //카운트 쿼리 분리 방법
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, contentQuery -> contentQuery
-                        .selectFrom(member)
-                        .where(usernameEq(condition.getUsername()),
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Page.empty(pageable);
+        }
+        //team 조인은 teamName 조건이 있을 때만 (MemberQueries)
+        return applyPagination(pageable, contentQuery -> selectFromMember(contentQuery, member,
+                                usernameEq(condition.getUsername()),
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
                                 ageLoe(condition.getAgeLoe())
-                        ), countQuery -> countQuery
-                .select(member.id)
-                .from(member)
-                .leftJoin(member.team , team)
-                .where(usernameEq(condition.getUsername()),
+                        ), countQuery -> selectFromMember(countQuery, member.id,
+                        usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 ));
     }
 
+    //지연 조인 페이징 -> id만 먼저 페이징하고 해당 페이지만 DTO로 조회
+    public Page<MemberTeamDto> applyDeferredJoinPagination(MemberSearchCondition condition, Pageable pageable) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return Page.empty(pageable);
+        }
+        return applyDeferredJoinPagination(pageable, member.id, MemberTeamDto::getMemberId, query ->
+                selectFromMember(query, new QMemberTeamDto(
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name),
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        )
+        );
+    }
+
+    //Slice -> count 쿼리 없이 다음 페이지 여부만
+    public Slice<Member> applySlicePagination(MemberSearchCondition condition, Pageable pageable) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+        return applySlicePagination(pageable, query ->
+                selectFromMember(query, member,
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        )
+        );
+    }
+
+    //키셋 페이징 -> 나이순, 나이가 같으면 id순
+    public KeysetPage<Member> applyKeysetPagination(MemberSearchCondition condition, String cursor, int size) {
+        if (teamIds.isUnknown(condition.getTeamName())) {
+            return KeysetPage.empty(size);
+        }
+        return applyKeysetPagination(Keyset.asc(member.age, member.id, Member::getAge, Member::getId), cursor, size,
+                query -> selectFromMember(query, member,
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        ));
+    }
+
+    //age 미만 회원 이름 변경 -> 영속성 컨텍스트의 해당 회원만 새 이름으로 갱신됨
+    public long renameYoungerThan(int age, String username) {
+        return bulkUpdate(member, member.age.lt(age), update -> update.set(member.username, username));
+    }
+
+    public long deleteOlderThan(int age) {
+        return bulkDelete(member, member.age.gt(age));
+    }
 
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ?  member.username.eq(username) : null;
     }
 
+    //팀 이름 -> team_id로 바꿔서 member의 FK로 조회 (team 조인 필요 없음)
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(teamIds.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
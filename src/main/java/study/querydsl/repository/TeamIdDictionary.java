@@ -0,0 +1,221 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 이름 -> team_id 사전 (메모리 캐시)
+ * teamName 조건을 team.name.eq(...) (team 조인 + 인덱스 없는 name 스캔) 대신
+ * member.team.id.in(...) (member의 FK 컬럼) 으로 바꾸기 위해 사용한다.
+ *
+ * 팀은 거의 안 바뀌므로 전체를 한 번에 읽어두고, Team이 저장/수정/삭제된 트랜잭션이 커밋되면 비운다.
+ * 1.공용 사전은 항상 새 트랜잭션에서 읽음 (호출한 트랜잭션의 오래된 REPEATABLE READ 스냅샷으로 채우지 않도록)
+ * 2.팀을 바꾼 트랜잭션 안에서는 그 트랜잭션에서 읽은 사전을 따로 씀 (커밋 전 변경이 바로 보이도록, 공용 사전에는 안 넣음)
+ * 3.ttl이 지나면 다시 읽음 (다른 서버에서 바꾼 팀, 이벤트가 안 나가는 JPQL 벌크 수정/삭제)
+ * 같은 서버의 JPQL 벌크 수정/삭제는 invalidate()를 직접 호출하면 바로 반영된다.
+ */
+@Component
+public class TeamIdDictionary {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate newTransaction;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public TeamIdDictionary(JPAQueryFactory queryFactory,
+                            EntityManagerFactory emf,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${querydsl.team-dictionary.ttl:5m}") Duration ttl) {
+        this.queryFactory = queryFactory;
+        this.emf = emf;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction.setReadOnly(true);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @PostConstruct
+    public void registerInvalidation() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        InvalidationListener listener = new InvalidationListener();
+        registry.appendListeners(EventType.PERSIST, listener);
+        //flush 중 cascade로 저장되는 팀
+        registry.appendListeners(EventType.PERSIST_ONFLUSH, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    //없는 팀 이름이면 빈 리스트 (이름이 비어 있으면 사전을 읽지 않음)
+    public List<Long> idsOf(String teamName) {
+        if (!hasText(teamName)) {
+            return Collections.emptyList();
+        }
+        return dictionary().getOrDefault(teamName, Collections.emptyList());
+    }
+
+    //조건에 팀 이름이 있는데 그런 팀이 없음 -> DB 조회 없이 빈 결과로 처리
+    public boolean isUnknown(String teamName) {
+        return hasText(teamName) && idsOf(teamName).isEmpty();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Map<String, List<Long>> dictionary() {
+        TransactionDictionary changed = (TransactionDictionary) TransactionSynchronizationManager.getResource(this);
+        if (changed != null) {
+            if (changed.teamIds == null) {
+                changed.teamIds = load();
+            }
+            return changed.teamIds;
+        }
+
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt < ttlNanos) {
+            return current.teamIds;
+        }
+
+        long loadedAt = generation.get();
+        Snapshot loaded = new Snapshot(newTransaction.execute(status -> load()));
+        //읽는 도중 무효화됐으면 이번 조회에만 쓰고 캐시하지 않음
+        if (generation.get() == loadedAt) {
+            snapshot = loaded;
+        }
+        return loaded.teamIds;
+    }
+
+    private Map<String, List<Long>> load() {
+        List<Tuple> rows = queryFactory
+                .select(team.name, team.id)
+                .from(team)
+                .fetch();
+
+        Map<String, List<Long>> loaded = new HashMap<>();
+        for (Tuple row : rows) {
+            loaded.computeIfAbsent(row.get(team.name), name -> new ArrayList<>()).add(row.get(team.id));
+        }
+        return loaded;
+    }
+
+    //팀을 바꾼 트랜잭션에서 쓸 사전 (다시 바뀌면 null -> 다음 조회 때 읽음)
+    private void changedInCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionDictionary changed = (TransactionDictionary) TransactionSynchronizationManager.getResource(this);
+        if (changed != null) {
+            changed.teamIds = null;
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, new TransactionDictionary());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TeamIdDictionary.this);
+            }
+        });
+    }
+
+    private static class Snapshot {
+        private final Map<String, List<Long>> teamIds;
+        private final long loadedAt = System.nanoTime();
+
+        Snapshot(Map<String, List<Long>> teamIds) {
+            this.teamIds = teamIds;
+        }
+    }
+
+    private static class TransactionDictionary {
+        private Map<String, List<Long>> teamIds;
+    }
+
+    private class InvalidationListener implements PersistEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPersist(PersistEvent event) {
+            onChange(event.getObject(), event.getSession());
+        }
+
+        //상위 인터페이스 시그니처가 raw Map (Map<?, ?>로는 override가 안 됨)
+        @Override
+        @SuppressWarnings("rawtypes")
+        public void onPersist(PersistEvent event, Map createdAlready) {
+            onChange(event.getObject(), event.getSession());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            onChange(event.getEntity(), event.getSession());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            onChange(event.getEntity(), event.getSession());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+
+        //Hibernate 5.6에서 아직 abstract라 구현은 필요
+        @Deprecated
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+
+        //커밋되면 공용 사전을 비움 (롤백이면 공용 사전은 그대로 맞음)
+        private void onChange(Object entity, EventSource session) {
+            if (!(entity instanceof Team)) {
+                return;
+            }
+            changedInCurrentTransaction();
+            session.getActionQueue().registerProcess((success, completedSession) -> {
+                if (success) {
+                    invalidate();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * totalElements, totalPages가 EXPLAIN 예상값인 페이지
+ * JSON에 "totalApproximate": true 가 추가된다.
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    public ApproximatePage(List<T> content, Pageable pageable, long estimatedTotal) {
+        super(content, pageable, estimatedTotal);
+    }
+
+    public boolean isTotalApproximate() {
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 영속성 컨텍스트를 맞춰주는 벌크 수정/삭제
+ * queryFactory.update(...).execute() 후 em.clear()로 전부 비우는 대신, 조건에 맞는 엔티티만 정리한다.
+ *
+ * 1.영속성 컨텍스트에 있는 대상 타입 엔티티 중 조건에 맞는 id를 조회
+ *   (이 조회가 AUTO flush라서 대상 테이블에 쌓인 변경이 있을 때만 flush됨 -> 조건이 메모리 상태 기준으로 평가됨)
+ * 2.벌크 쿼리 실행 (2차 캐시의 대상 엔티티 리전은 Hibernate가 비움)
+ * 3.수정: 조건에 맞던 엔티티만 다시 읽음(REFRESH, 엔티티당 select 1번) 또는 detach(EVICT)
+ *   삭제: 조건에 맞던 엔티티만 detach
+ * 다른 타입, 조건에 안 맞는 엔티티는 그대로 관리 상태로 남는다.
+ *
+ * 이미 로딩된 컬렉션(ex. Team.members)에 들어있는 삭제된 엔티티, Hibernate 이벤트를 쓰는 캐시(TeamIdDictionary)는 직접 정리해야 한다.
+ */
+public final class BulkOperations {
+
+    public enum Sync {REFRESH, EVICT}
+
+    //id in (...) 한 번에 넣을 최대 개수
+    private static final int IN_LIMIT = 1000;
+
+    private BulkOperations() {
+    }
+
+    public static <T> long update(EntityManager em, JPAQueryFactory queryFactory, EntityPath<T> target,
+                                  Predicate predicate, Consumer<JPAUpdateClause> changes, Sync sync) {
+        List<Object> matched = managedMatching(em, queryFactory, target, predicate);
+
+        JPAUpdateClause update = queryFactory.update(target).where(predicate);
+        changes.accept(update);
+        long affected = update.execute();
+
+        for (Object entity : matched) {
+            if (sync == Sync.REFRESH) {
+                em.refresh(entity);
+            } else {
+                em.detach(entity);
+            }
+        }
+        return affected;
+    }
+
+    public static <T> long delete(EntityManager em, JPAQueryFactory queryFactory, EntityPath<T> target, Predicate predicate) {
+        List<Object> matched = managedMatching(em, queryFactory, target, predicate);
+
+        long affected = queryFactory.delete(target).where(predicate).execute();
+
+        matched.forEach(em::detach);
+        return affected;
+    }
+
+    //관리 중인 대상 타입 엔티티 중 (flush 후) DB에서 조건에 맞는 것
+    private static List<Object> managedMatching(EntityManager em, JPAQueryFactory queryFactory, EntityPath<?> target, Predicate predicate) {
+        Map<Object, Object> managed = managedEntities(em, target.getType());
+        if (managed.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        EntityType<?> entityType = em.getMetamodel().entity(target.getType());
+        String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        PathBuilder<Object> id = new PathBuilder<>(target.getType(), target.getMetadata()).get(idName);
+
+        List<Object> ids = new ArrayList<>(managed.keySet());
+        Set<Object> matchedIds = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += IN_LIMIT) {
+            matchedIds.addAll(queryFactory
+                    .select(id)
+                    .from(target)
+                    .where(predicate, id.in(ids.subList(from, Math.min(from + IN_LIMIT, ids.size()))))
+                    .setFlushMode(FlushModeType.AUTO)
+                    .fetch());
+        }
+
+        List<Object> matched = new ArrayList<>(matchedIds.size());
+        managed.forEach((entityId, entity) -> {
+            if (matchedIds.contains(entityId)) {
+                matched.add(entity);
+            }
+        });
+        return matched;
+    }
+
+    //id -> 엔티티 (프록시로만 있는 것, 삭제 예정인 것은 제외)
+    private static Map<Object, Object> managedEntities(EntityManager em, Class<?> type) {
+        Map<Object, Object> managed = new LinkedHashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class).getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (type.isInstance(entry.getKey()) && entry.getValue().getStatus() == Status.MANAGED) {
+                managed.put(entry.getValue().getId(), entry.getKey());
+            }
+        }
+        return managed;
+    }
+}
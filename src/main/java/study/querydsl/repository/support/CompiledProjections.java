@@ -0,0 +1,322 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / Projections.fields 대체
+ * Querydsl의 QBean은 row마다 리플렉션으로 setter/필드에 값을 넣는다.
+ * 여기서는 DTO 클래스 + 별칭 목록별로 한 번만 생성자/setter를 LambdaMetafactory로 컴파일해서 캐시하고
+ * row마다는 컴파일된 람다를 직접 호출한다. (필드 주입은 MethodHandle)
+ *
+ * 사용법은 Projections와 같다.
+ * ex) CompiledProjections.bean(MemberDto.class, member.username, member.age)
+ *     CompiledProjections.fields(UserDto.class, member.username.as("name"), ...)
+ */
+public final class CompiledProjections {
+
+    private static final ConcurrentMap<Key, Instantiator<?>> CACHE = new ConcurrentHashMap<>();
+
+    private CompiledProjections() {
+    }
+
+    //setter 사용
+    public static <T> FactoryExpressionBase<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return new CompiledBean<>(type, false, exprs);
+    }
+
+    //필드 직접 접근 -> setter 없어도 됨
+    public static <T> FactoryExpressionBase<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        return new CompiledBean<>(type, true, exprs);
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    private static final class CompiledBean<T> extends FactoryExpressionBase<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Expression<?>> args;
+        private final boolean fieldAccess;
+        private final Instantiator<T> instantiator;
+
+        @SuppressWarnings("unchecked")
+        CompiledBean(Class<? extends T> type, boolean fieldAccess, Expression<?>... exprs) {
+            super(type);
+            this.args = Collections.unmodifiableList(Arrays.asList(exprs));
+            this.fieldAccess = fieldAccess;
+
+            List<String> aliases = new ArrayList<>(exprs.length);
+            for (Expression<?> expr : exprs) {
+                aliases.add(aliasOf(expr));
+            }
+            this.instantiator = (Instantiator<T>) CACHE.computeIfAbsent(new Key(type, fieldAccess, aliases),
+                    key -> Instantiator.compile(key.type, key.fieldAccess, key.aliases));
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        public T newInstance(Object... values) {
+            return instantiator.newInstance(values);
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof CompiledBean)) {
+                return false;
+            }
+            CompiledBean<?> other = (CompiledBean<?>) obj;
+            return getType().equals(other.getType()) && fieldAccess == other.fieldAccess && args.equals(other.args);
+        }
+    }
+
+    //QBean과 같은 규칙: 경로면 마지막 이름, as(...)면 별칭
+    private static String aliasOf(Expression<?> expr) {
+        if (expr instanceof Path) {
+            return ((Path<?>) expr).getMetadata().getName();
+        }
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            Expression<?> alias = ((Operation<?>) expr).getArg(1);
+            if (alias instanceof Path) {
+                return ((Path<?>) alias).getMetadata().getName();
+            }
+        }
+        throw new IllegalArgumentException("프로젝션 별칭을 알 수 없음: " + expr + " (as(\"이름\")으로 지정)");
+    }
+
+    /**
+     * DTO 클래스 + 별칭 목록별로 컴파일된 생성 로직
+     * 대상 프로퍼티가 없는 별칭, null 값은 QBean처럼 무시한다.
+     */
+    private abstract static class Instantiator<T> {
+
+        abstract T newInstance(Object... values);
+
+        static <T> Instantiator<T> compile(Class<T> type, boolean fieldAccess, List<String> aliases) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                return fieldAccess
+                        ? FieldInstantiator.compile(lookup, type, aliases)
+                        : SetterInstantiator.compile(lookup, type, aliases);
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("프로젝션 컴파일 실패: " + type.getName() + aliases, e);
+            }
+        }
+    }
+
+    //생성자, setter를 각각 LambdaMetafactory 람다로 만들어 호출 (일반 람다 호출과 같은 비용)
+    private static final class SetterInstantiator<T> extends Instantiator<T> {
+
+        private final Supplier<T> constructor;
+        private final BiConsumer<Object, Object>[] setters;
+
+        private SetterInstantiator(Supplier<T> constructor, BiConsumer<Object, Object>[] setters) {
+            this.constructor = constructor;
+            this.setters = setters;
+        }
+
+        @Override
+        T newInstance(Object... values) {
+            T bean = constructor.get();
+            for (int i = 0; i < setters.length; i++) {
+                Object value = values[i];
+                if (value != null && setters[i] != null) {
+                    setters[i].accept(bean, value);
+                }
+            }
+            return bean;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> SetterInstantiator<T> compile(MethodHandles.Lookup lookup, Class<T> type, List<String> aliases) throws Throwable {
+            BiConsumer<Object, Object>[] setters = (BiConsumer<Object, Object>[]) new BiConsumer<?, ?>[aliases.size()];
+            for (int i = 0; i < setters.length; i++) {
+                setters[i] = setter(lookup, type, aliases.get(i));
+            }
+            return new SetterInstantiator<>(constructor(lookup, type), setters);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Supplier<T> constructor(MethodHandles.Lookup lookup, Class<T> type) throws Throwable {
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    lookup.findConstructor(type, MethodType.methodType(void.class)),
+                    MethodType.methodType(type));
+            return (Supplier<T>) site.getTarget().invokeExact();
+        }
+
+        //public setter -> (bean, value) -> bean.setXxx(value) 람다 (박싱 타입은 LambdaMetafactory가 언박싱)
+        @SuppressWarnings("unchecked")
+        private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> type, String property) throws Throwable {
+            Method setter = findSetter(type, property);
+            if (setter == null) {
+                return null;
+            }
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    lookup.unreflect(setter),
+                    MethodType.methodType(void.class, type, box(setter.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        }
+    }
+
+    /**
+     * 필드 setter 핸들은 LambdaMetafactory 대상이 아니므로
+     * 생성 + 필드별 (null이 아니면) 대입을 MethodHandle 하나로 합쳐서 row당 한 번만 호출한다.
+     * ex) values -> { T bean = new T(); if (values[0] != null) bean.f0 = values[0]; ...; return bean; }
+     */
+    private static final class FieldInstantiator<T> extends Instantiator<T> {
+
+        private static final MethodHandle NON_NULL;
+
+        static {
+            try {
+                NON_NULL = MethodHandles.lookup().findStatic(Objects.class, "nonNull",
+                        MethodType.methodType(boolean.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        //(Object[])Object
+        private final MethodHandle factory;
+
+        private FieldInstantiator(MethodHandle factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        T newInstance(Object... values) {
+            try {
+                return (T) factory.invokeExact(values);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        static <T> FieldInstantiator<T> compile(MethodHandles.Lookup lookup, Class<T> type, List<String> aliases) throws Throwable {
+            //(T, Object[])T : 받은 bean을 그대로 반환
+            MethodHandle body = MethodHandles.dropArguments(MethodHandles.identity(type), 1, Object[].class);
+            for (int i = aliases.size() - 1; i >= 0; i--) {
+                Field field = findField(type, aliases.get(i));
+                if (field != null) {
+                    body = MethodHandles.foldArguments(body, assignIfNotNull(lookup, type, field, i));
+                }
+            }
+            //(Object[])T : new T() 결과를 body의 첫 번째 인자로
+            MethodHandle constructor = MethodHandles.dropArguments(
+                    lookup.findConstructor(type, MethodType.methodType(void.class)), 0, Object[].class);
+            MethodHandle factory = MethodHandles.foldArguments(body, constructor)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new FieldInstantiator<>(factory);
+        }
+
+        //(T, Object[])void : values[index]가 null이 아니면 bean.field = values[index]
+        private static MethodHandle assignIfNotNull(MethodHandles.Lookup lookup, Class<?> type, Field field, int index) throws IllegalAccessException {
+            MethodHandle element = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, index);
+            MethodHandle assign = MethodHandles.filterArguments(
+                    lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, type, Object.class)), 1, element);
+            MethodHandle test = MethodHandles.dropArguments(MethodHandles.filterArguments(NON_NULL, 0, element), 0, type);
+            return MethodHandles.guardWithTest(test, assign, MethodHandles.empty(assign.type()));
+        }
+    }
+
+    private static Method findSetter(Class<?> type, String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String property) {
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(property);
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                    return field;
+                }
+                return null;
+            } catch (NoSuchFieldException ignored) {
+                //상위 클래스에서 찾음
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static final class Key {
+
+        private final Class<?> type;
+        private final boolean fieldAccess;
+        private final List<String> aliases;
+
+        Key(Class<?> type, boolean fieldAccess, List<String> aliases) {
+            this.type = type;
+            this.fieldAccess = fieldAccess;
+            this.aliases = aliases;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return type == other.type && fieldAccess == other.fieldAccess && aliases.equals(other.aliases);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, fieldAccess, aliases);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.EntityManager;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.Query;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 컨텐츠 쿼리를 count 쿼리로 바꿔주는 유틸
+ * fetch().size() 처럼 엔티티를 전부 조회하지 않고 DB에서 select count(...)로 센다.
+ *
+ * 1.프로젝션 -> count(root), distinct면 count(distinct 프로젝션)
+ *   (distinct 프로젝션이 여러 컬럼이거나 group by면 fetchCount가 SQL 서브쿼리로 센다)
+ * 2.정렬, offset, limit 제거
+ * 3.fetch join -> 일반 join (count 쿼리에서 fetch join은 에러)
+ * 4.where, group by, having, 다른 조인에서 참조하지 않는 to-one 연관관계 left join 제거
+ *   (@ManyToOne, @OneToOne left join은 row 수를 바꾸지 않으니 빼도 결과가 같다)
+ *   on절이 있거나 연관관계 없는 엔티티 조인(leftJoin(team).on(...))은 row가 늘어날 수 있어서 유지
+ *
+ * select()는 정렬을 유지한 채 프로젝션만 바꾼다. (정렬에서 쓰는 조인도 유지)
+ */
+@Slf4j
+public final class CountQueryRewriter {
+
+    private CountQueryRewriter() {
+    }
+
+    //countsRows()면 count 쿼리 하나로 셀 수 없음 -> fetchCount 사용
+    public static JPAQuery<Long> rewrite(JPAQueryFactory queryFactory, JPAQuery<?> contentQuery) {
+        QueryMetadata source = contentQuery.getMetadata();
+        Expression<?> root = alias(source.getJoins().get(0).getTarget());
+
+        Expression<Long> count;
+        if (source.isDistinct()) {
+            List<Expression<?>> distinct = distinctColumns(source, root);
+            if (distinct.size() != 1) {
+                throw new IllegalArgumentException("여러 컬럼 distinct는 count(distinct ...)로 셀 수 없음: " + source.getProjection());
+            }
+            count = Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, distinct.get(0));
+        } else {
+            count = Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_AGG, root);
+        }
+        JPAQuery<Long> countQuery = queryFactory.select(count);
+        copy(source, countQuery.getMetadata(), false);
+        return countQuery;
+    }
+
+    /**
+     * count 쿼리의 결과 row 수를 세야 하는 경우
+     * group by -> 그룹마다 count가 나옴, 여러 컬럼 distinct -> count(distinct ...)에 여러 컬럼을 못 넣음
+     */
+    public static boolean countsRows(QueryMetadata metadata) {
+        if (!metadata.getGroupBy().isEmpty()) {
+            return true;
+        }
+        return metadata.isDistinct()
+                && distinctColumns(metadata, alias(metadata.getJoins().get(0).getTarget())).size() != 1;
+    }
+
+    /**
+     * 같은 조건으로 프로젝션만 바꾼 쿼리 (정렬은 유지)
+     * ex) 지연 조인 페이징에서 id만 먼저 페이징할 때
+     */
+    public static <U> JPAQuery<U> select(JPAQueryFactory queryFactory, JPAQuery<?> contentQuery, Expression<U> projection) {
+        QueryMetadata source = contentQuery.getMetadata();
+        JPAQuery<U> query = queryFactory.select(projection);
+        copy(source, query.getMetadata(), true);
+        query.getMetadata().setDistinct(source.isDistinct());
+        return query;
+    }
+
+    private static void copy(QueryMetadata source, QueryMetadata target, boolean withOrder) {
+        for (JoinExpression join : requiredJoins(source, withOrder)) {
+            target.addJoin(join.getType(), join.getTarget());
+            for (JoinFlag flag : join.getFlags()) {
+                if (!flag.equals(JPAQueryMixin.FETCH) && !flag.equals(JPAQueryMixin.FETCH_ALL_PROPERTIES)) {
+                    target.addJoinFlag(flag);
+                }
+            }
+            if (join.getCondition() != null) {
+                target.addJoinCondition(join.getCondition());
+            }
+        }
+        if (source.getWhere() != null) {
+            target.addWhere(source.getWhere());
+        }
+        for (Expression<?> groupBy : source.getGroupBy()) {
+            target.addGroupBy(groupBy);
+        }
+        if (source.getHaving() != null) {
+            target.addHaving(source.getHaving());
+        }
+        if (withOrder) {
+            for (OrderSpecifier<?> orderBy : source.getOrderBy()) {
+                target.addOrderBy(orderBy);
+            }
+        }
+        copyParams(source, target);
+    }
+
+    /**
+     * 전체 개수
+     * countsRows()면 row를 가져와서 세지 않고 row 쿼리를 SQL 서브쿼리로 감싸서 센다. (JPQL은 from절 서브쿼리가 없음)
+     * select count(*) from (select distinct ... / select count(...) ... group by ...) counted
+     * SQL로 옮길 수 없는 쿼리(값이 없는 Param, 빈 IN 목록)만 row를 조회해서 센다.
+     */
+    public static long fetchCount(EntityManager em, JPAQueryFactory queryFactory, JPAQuery<?> contentQuery) {
+        QueryMetadata source = contentQuery.getMetadata();
+        if (!countsRows(source)) {
+            Long count = rewrite(queryFactory, contentQuery).fetchOne();
+            return count != null ? count : 0L;
+        }
+
+        JPAQuery<?> rows;
+        if (source.isDistinct()) {
+            Expression<?> root = alias(source.getJoins().get(0).getTarget());
+            rows = queryFactory.select(distinctColumns(source, root).toArray(new Expression<?>[0])).distinct();
+            copy(source, rows.getMetadata(), false);
+        } else {
+            rows = rewrite(queryFactory, contentQuery);
+        }
+        Optional<Query> count = NativeQueries.wrap(em, rows, "select count(*) from (", ") counted");
+        if (count.isPresent()) {
+            return ((Number) count.get().getSingleResult()).longValue();
+        }
+        log.warn("count 서브쿼리를 만들 수 없어서 row를 조회해서 셈: {}", rows);
+        return rows.fetch().size();
+    }
+
+    //뒤에서부터 보면서 필요한 alias를 모은다 (뒤 조인의 on절이 앞 조인을 참조할 수 있음)
+    private static List<JoinExpression> requiredJoins(QueryMetadata metadata, boolean withOrder) {
+        Set<Expression<?>> referenced = new HashSet<>();
+        QueryPaths.collectRoots(metadata.getWhere(), referenced);
+        QueryPaths.collectRoots(metadata.getHaving(), referenced);
+        for (Expression<?> groupBy : metadata.getGroupBy()) {
+            QueryPaths.collectRoots(groupBy, referenced);
+        }
+        if (withOrder) {
+            for (OrderSpecifier<?> orderBy : metadata.getOrderBy()) {
+                QueryPaths.collectRoots(orderBy.getTarget(), referenced);
+            }
+        }
+
+        List<JoinExpression> joins = metadata.getJoins();
+        List<JoinExpression> required = new ArrayList<>();
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (i == 0 || !isRemovable(join, referenced)) {
+                required.add(join);
+                QueryPaths.collectRoots(join.getCondition(), referenced);
+                QueryPaths.collectRoots(source(join.getTarget()), referenced);
+            }
+        }
+        Collections.reverse(required);
+        return required;
+    }
+
+    private static boolean isRemovable(JoinExpression join, Set<Expression<?>> referenced) {
+        if (join.getType() != JoinType.LEFTJOIN || join.getCondition() != null) {
+            return false;
+        }
+        return isToOneAssociation(source(join.getTarget())) && !referenced.contains(alias(join.getTarget()));
+    }
+
+    //member.team 처럼 부모가 있는 경로이고 필드에 @ManyToOne, @OneToOne (엔티티 자체 조인은 부모가 없음)
+    private static boolean isToOneAssociation(Expression<?> joinSource) {
+        if (!(joinSource instanceof Path) || joinSource instanceof CollectionExpression) {
+            return false;
+        }
+        Path<?> path = (Path<?>) joinSource;
+        if (path.getMetadata().getParent() == null) {
+            return false;
+        }
+        AnnotatedElement field = path.getAnnotatedElement();
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class);
+    }
+
+    //프로젝션이 없거나 root면 root, DTO/Tuple이면 생성자 인자들
+    private static List<Expression<?>> distinctColumns(QueryMetadata metadata, Expression<?> root) {
+        Expression<?> projection = metadata.getProjection();
+        if (projection == null || projection.equals(root)) {
+            return Collections.singletonList(root);
+        }
+        if (projection instanceof FactoryExpression) {
+            return ((FactoryExpression<?>) projection).getArgs();
+        }
+        return Collections.singletonList(projection);
+    }
+
+    //leftJoin(member.team, team) -> alias(member.team, team)
+    private static Expression<?> alias(Expression<?> joinTarget) {
+        if (joinTarget instanceof Operation && ((Operation<?>) joinTarget).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) joinTarget).getArg(1);
+        }
+        return joinTarget;
+    }
+
+    private static Expression<?> source(Expression<?> joinTarget) {
+        if (joinTarget instanceof Operation && ((Operation<?>) joinTarget).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) joinTarget).getArg(0);
+        }
+        return joinTarget;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void copyParams(QueryMetadata source, QueryMetadata target) {
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            target.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+    }
+}
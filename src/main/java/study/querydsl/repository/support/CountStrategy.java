@@ -0,0 +1,54 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * 페이징 전체 개수를 어떻게 셀지 결정
+ *
+ * exact    -> 항상 select count(...)
+ * estimate -> 먼저 EXPLAIN의 예상 row 수를 보고(ExplainRowEstimator), threshold보다 크면 count 쿼리 없이 예상값을 쓴다.
+ *             ("약 230만 건" 정도면 충분한 넓은 검색 조건에서 count(*) 풀스캔을 피함)
+ *             threshold 이하거나 예상값을 못 구하면(MySQL이 아닌 경우 등) 정확한 count
+ */
+@Component
+public class CountStrategy {
+
+    private final EntityManager em;
+    private final Function<JPAQuery<Long>, OptionalLong> estimator;
+    private final boolean estimate;
+    private final long threshold;
+
+    @Autowired
+    public CountStrategy(EntityManager em, ExplainRowEstimator estimator,
+                         @Value("${querydsl.count.strategy:exact}") String strategy,
+                         @Value("${querydsl.count.estimate-threshold:100000}") long threshold) {
+        this(em, estimator::estimate, strategy, threshold);
+    }
+
+    CountStrategy(EntityManager em, Function<JPAQuery<Long>, OptionalLong> estimator, String strategy, long threshold) {
+        this.em = em;
+        this.estimator = estimator;
+        this.estimate = "estimate".equalsIgnoreCase(strategy);
+        this.threshold = threshold;
+    }
+
+    public TotalCount totalOf(JPAQueryFactory queryFactory, JPAQuery<?> query) {
+        return new TotalCount(() -> {
+            if (estimate && !CountQueryRewriter.countsRows(query.getMetadata())) {
+                OptionalLong estimated = estimator.apply(CountQueryRewriter.rewrite(queryFactory, query));
+                if (estimated.isPresent() && estimated.getAsLong() > threshold) {
+                    return TotalCount.approximate(estimated.getAsLong());
+                }
+            }
+            return TotalCount.exact(CountQueryRewriter.fetchCount(em, queryFactory, query));
+        });
+    }
+}
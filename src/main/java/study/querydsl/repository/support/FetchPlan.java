@@ -0,0 +1,46 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 쿼리별 페치 전략 (엔티티 그래프)
+ * ex) FetchPlan.fetchGraph("Member.team") -> 그래프에 있는 연관관계는 조인해서 같이 로딩
+ *
+ * fetchGraph: 그래프에 있는 속성만 즉시 로딩, 나머지는 LAZY
+ * loadGraph: 그래프에 있는 속성은 즉시 로딩, 나머지는 매핑에 적힌 전략 그대로
+ *
+ * 그래프에 없는 지연 로딩은 hibernate.default_batch_fetch_size 만큼씩 IN (...)으로 묶어서 초기화된다.
+ */
+public final class FetchPlan {
+
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    private final String hint;
+    private final String graphName;
+
+    private FetchPlan(String hint, String graphName) {
+        this.hint = hint;
+        this.graphName = graphName;
+    }
+
+    public static FetchPlan fetchGraph(String graphName) {
+        return new FetchPlan(FETCH_GRAPH, graphName);
+    }
+
+    public static FetchPlan loadGraph(String graphName) {
+        return new FetchPlan(LOAD_GRAPH, graphName);
+    }
+
+    //@NamedEntityGraph 이름으로 그래프를 찾아 쿼리 힌트로 넣음
+    public <T> JPAQuery<T> applyTo(JPAQuery<T> query, EntityManager entityManager) {
+        return query.setHint(hint, entityManager.getEntityGraph(graphName));
+    }
+
+    @Override
+    public String toString() {
+        return hint + "=" + graphName;
+    }
+}
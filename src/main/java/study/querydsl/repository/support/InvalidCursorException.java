@@ -0,0 +1,14 @@
+package study.querydsl.repository.support;
+
+/**
+ * 키셋 커서를 해석할 수 없음 (Base64가 아니거나, 형식이 다르거나, 값 타입이 안 맞음)
+ * 클라이언트가 보낸 값 문제이므로 컨트롤러에서 400으로 응답한다.
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("잘못된 커서입니다: " + cursor, cause);
+    }
+}
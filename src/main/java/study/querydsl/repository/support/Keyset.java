@@ -0,0 +1,100 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 키셋(seek) 페이징 정의
+ * 정렬 키 + id(동점 처리용)로 "마지막으로 본 row 다음"을 where 조건으로 만든다.
+ * offset처럼 앞 row를 읽고 버리지 않으므로 몇 번째 페이지든 인덱스 범위 조회 한 번으로 끝남.
+ *
+ * 커서는 "id:정렬키값"을 Base64(URL)로 인코딩한 문자열 (클라이언트는 내용을 몰라도 됨)
+ */
+public class Keyset<T> {
+
+    private final Expression<? extends Comparable<?>> sortKey;
+    private final Expression<Long> id;
+    private final Function<T, ?> sortKeyOf;
+    private final Function<T, Long> idOf;
+    private final Order order;
+
+    private Keyset(Expression<? extends Comparable<?>> sortKey, Expression<Long> id,
+                   Function<T, ?> sortKeyOf, Function<T, Long> idOf, Order order) {
+        this.sortKey = sortKey;
+        this.id = id;
+        this.sortKeyOf = sortKeyOf;
+        this.idOf = idOf;
+        this.order = order;
+    }
+
+    public static <T> Keyset<T> asc(Expression<? extends Comparable<?>> sortKey, Expression<Long> id,
+                                    Function<T, ?> sortKeyOf, Function<T, Long> idOf) {
+        return new Keyset<>(sortKey, id, sortKeyOf, idOf, Order.ASC);
+    }
+
+    public static <T> Keyset<T> desc(Expression<? extends Comparable<?>> sortKey, Expression<Long> id,
+                                     Function<T, ?> sortKeyOf, Function<T, Long> idOf) {
+        return new Keyset<>(sortKey, id, sortKeyOf, idOf, Order.DESC);
+    }
+
+    /**
+     * (sortKey, id) > (?, ?) 조건
+     * JPQL은 row 값 비교가 안되서 sortKey >= ? and (sortKey > ? or id > ?) 로 풀어서 쓴다.
+     * 앞의 sortKey >= ? 는 인덱스 범위 조회를 타게 하려고 넣은 조건
+     * 커서가 없으면(첫 페이지) null -> where절에서 무시됨
+     * 커서를 해석할 수 없으면 InvalidCursorException
+     */
+    public BooleanExpression after(String cursor) {
+        if (!hasText(cursor)) {
+            return null;
+        }
+        Long lastId;
+        Object lastKey;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("구분자(:) 없음");
+            }
+            lastId = Long.valueOf(decoded.substring(0, separator));
+            lastKey = DefaultConversionService.getSharedInstance()
+                    .convert(decoded.substring(separator + 1), sortKey.getType());
+        } catch (IllegalArgumentException | ConversionException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+        if (lastKey == null) {
+            throw new InvalidCursorException(cursor, null);
+        }
+
+        Ops range = order.equals(Order.ASC) ? Ops.GOE : Ops.LOE;
+        Ops next = order.equals(Order.ASC) ? Ops.GT : Ops.LT;
+        return Expressions.booleanOperation(range, sortKey, Expressions.constant(lastKey))
+                .and(Expressions.booleanOperation(next, sortKey, Expressions.constant(lastKey))
+                        .or(Expressions.booleanOperation(next, id, Expressions.constant(lastId))));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public OrderSpecifier<?>[] orderBy() {
+        return new OrderSpecifier[]{
+                new OrderSpecifier(order, sortKey),
+                new OrderSpecifier(order, id)
+        };
+    }
+
+    public String cursorOf(T row) {
+        String raw = idOf.apply(row) + ":" + sortKeyOf.apply(row);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 키셋 페이징 결과
+ * 전체 개수는 없고, 다음 페이지가 있으면 nextCursor로 이어서 조회한다.
+ */
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    private KeysetPage(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> KeysetPage<T> empty(int size) {
+        return new KeysetPage<>(Collections.emptyList(), size, false, null);
+    }
+
+    //다음 페이지가 있는지 보려고 한 개 더 조회 (long이라서 size가 Integer.MAX_VALUE여도 넘치지 않음)
+    public static long fetchSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size는 1 이상이어야 합니다: " + size);
+        }
+        return size + 1L;
+    }
+
+    //size + 1개를 조회한 결과를 받아서 마지막 한 개로 다음 페이지 여부를 판단
+    public static <T> KeysetPage<T> of(List<T> fetched, int size, Keyset<T> keyset) {
+        fetchSize(size);
+        boolean hasNext = fetched.size() > size;
+        List<T> content = hasNext ? fetched.subList(0, size) : fetched;
+        String nextCursor = hasNext ? keyset.cursorOf(content.get(content.size() - 1)) : null;
+        return new KeysetPage<>(content, size, hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,114 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.spi.PositionalParameterInformation;
+import org.hibernate.hql.spi.QueryTranslator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Querydsl 쿼리를 Hibernate가 만든 SQL로 바꿔서 앞뒤에 SQL을 붙인 네이티브 쿼리
+ * ex) "explain " + SQL, "select count(*) from (" + SQL + ") counted" 처럼 JPQL로 쓸 수 없는 쿼리
+ *
+ * JPQL 파라미터(?1, ?2...)는 SQL에서 위치가 바뀌거나 여러 번 나올 수 있어서 위치 정보대로 다시 바인딩한다.
+ * 컬렉션 값(IN 목록)은 SQL에 ? 하나로 남아 있으므로 원소 수만큼 ?를 늘려서 하나씩 바인딩한다.
+ * 값이 정해지지 않은 Param, 빈 IN 목록은 SQL로 옮길 수 없음 -> empty
+ */
+final class NativeQueries {
+
+    private NativeQueries() {
+    }
+
+    static Optional<Query> wrap(EntityManager em, JPAQuery<?> query, String prefix, String suffix) {
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+        List<Object> constants = serializer.getConstants();
+
+        QueryTranslator translator = translatorOf(em, serializer.toString());
+        String sql = translator.getSQLString();
+        Object[] values = new Object[placeholderCount(sql)];
+        Map<Integer, PositionalParameterInformation> params =
+                translator.getParameterTranslations().getPositionalParameterInformationMap();
+        for (Map.Entry<Integer, PositionalParameterInformation> param : params.entrySet()) {
+            Object value = constants.get(param.getKey() - 1);
+            if (value instanceof ParamExpression || (value instanceof Collection && ((Collection<?>) value).isEmpty())) {
+                return Optional.empty();
+            }
+            for (int location : param.getValue().getSourceLocations()) {
+                if (location >= values.length) {
+                    return Optional.empty();
+                }
+                values[location] = value;
+            }
+        }
+
+        StringBuilder expanded = new StringBuilder(prefix);
+        List<Object> bindings = new ArrayList<>();
+        int location = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c != '?' || quoted) {
+                expanded.append(c);
+                continue;
+            }
+            Object value = values[location++];
+            if (value instanceof Collection) {
+                int n = 0;
+                for (Object element : (Collection<?>) value) {
+                    expanded.append(n++ == 0 ? "?" : ", ?");
+                    bindings.add(element);
+                }
+            } else {
+                expanded.append('?');
+                bindings.add(value);
+            }
+        }
+        expanded.append(suffix);
+
+        Query nativeQuery = em.createNativeQuery(expanded.toString());
+        for (int i = 0; i < bindings.size(); i++) {
+            nativeQuery.setParameter(i + 1, bindings.get(i));
+        }
+        return Optional.of(nativeQuery);
+    }
+
+    //문자열 리터럴 밖의 ? 개수
+    private static int placeholderCount(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //JPQL -> SQL 변환은 Hibernate 쿼리 플랜 캐시를 같이 씀 (JPQL은 값이 ?1, ?2라서 조건 모양 수만큼만 생김)
+    //getQueryPlanCache()는 Hibernate 6에서 없어질 예정이라 deprecated지만 5.x에서는 em.createQuery()도 같은 캐시를 씀
+    @SuppressWarnings("deprecation")
+    private static QueryTranslator translatorOf(EntityManager em, String jpql) {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return sessionFactory.getQueryPlanCache()
+                .getHQLQueryPlan(jpql, false, Collections.emptyMap())
+                .getTranslators()[0];
+    }
+}
@@ -0,0 +1,107 @@
+package study.querydsl.repository.support;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static study.querydsl.monitoring.RepositoryInvocation.trackCount;
+
+/**
+ * 컨텐츠 쿼리와 count 쿼리를 동시에 실행 (옵션, 기본은 꺼짐)
+ * 요청 스레드에서 컨텐츠 쿼리를, 별도 스레드에서 count 쿼리를 실행해서 지연시간이 합이 아니라 max가 된다.
+ *
+ * count는 다른 스레드라서 트랜잭션 밖 -> 별도 커넥션으로 커밋된 데이터 기준으로 센다.
+ * 같은 트랜잭션에서 방금 저장한 데이터까지 세야 하는 곳에서는 쓰면 안된다.
+ * 페이지 시작이면서 컨텐츠가 페이지 사이즈보다 작거나, 마지막 페이지라서 count가 필요 없으면 count는 취소한다.
+ * count 사용 여부는 미리 제출한 작업이 아니라 getPage가 결과를 요청했는지로 기록한다. (RepositoryInvocation)
+ */
+@Component
+public class ParallelCountExecutor implements DisposableBean {
+
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+
+    public ParallelCountExecutor(@Value("${querydsl.parallel-count.enabled:false}") boolean enabled,
+                                 @Value("${querydsl.parallel-count.pool-size:8}") int poolSize,
+                                 @Value("${querydsl.parallel-count.queue-capacity:64}") int queueCapacity) {
+        this.enabled = enabled;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> Page<T> getPage(Supplier<List<T>> content, Pageable pageable, LongSupplier count) {
+        if (!enabled || pageable.isUnpaged()) {
+            return PageableExecutionUtils.getPage(content.get(), pageable, trackCount(count));
+        }
+
+        Future<Long> total;
+        try {
+            total = executor.submit(count::getAsLong);
+        } catch (RejectedExecutionException e) {
+            //큐가 꽉 차면 그냥 순서대로 실행
+            return PageableExecutionUtils.getPage(content.get(), pageable, trackCount(count));
+        }
+
+        AtomicBoolean countUsed = new AtomicBoolean();
+        try {
+            return PageableExecutionUtils.getPage(content.get(), pageable, trackCount(() -> {
+                countUsed.set(true);
+                return await(total);
+            }));
+        } finally {
+            if (!countUsed.get()) {
+                total.cancel(true);
+            }
+        }
+    }
+
+    private static long await(Future<Long> total) {
+        try {
+            return total.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("count 쿼리 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("count 쿼리 실패", e.getCause());
+        }
+    }
+
+    //Java 21 이상이면 가상 스레드, 아니면 일반 스레드 (풀 크기로 동시 실행 수는 제한됨)
+    private static ThreadFactory threadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "count-query-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("count-query-");
+            threadFactory.setDaemon(true);
+            return threadFactory;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
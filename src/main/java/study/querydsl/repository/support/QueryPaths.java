@@ -0,0 +1,43 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.support.PathsExtractor;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 식에서 어떤 alias(root path)를 참조하는지 확인하는 유틸
+ * ex) team.name.eq("teamA") -> team 참조, member.team.id -> member만 참조 (FK 컬럼)
+ */
+public final class QueryPaths {
+
+    private QueryPaths() {
+    }
+
+    public static boolean references(Path<?> alias, Expression<?>... expressions) {
+        return roots(expressions).contains(alias);
+    }
+
+    public static Set<Expression<?>> roots(Expression<?>... expressions) {
+        Set<Expression<?>> roots = new HashSet<>();
+        for (Expression<?> expression : expressions) {
+            collectRoots(expression, roots);
+        }
+        return roots;
+    }
+
+    static void collectRoots(Expression<?> expression, Set<Expression<?>> roots) {
+        if (expression == null) {
+            return;
+        }
+        List<Path<?>> paths = new ArrayList<>();
+        expression.accept(PathsExtractor.DEFAULT, paths);
+        for (Path<?> path : paths) {
+            roots.add(path.getRoot());
+        }
+    }
+}
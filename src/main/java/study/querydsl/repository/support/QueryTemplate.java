@@ -0,0 +1,160 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionUtils;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 미리 JPQL로 직렬화해 둔 Querydsl 쿼리
+ * 조건 값은 Param으로 만들어두고 실행할 때 값만 바인딩한다. (식 트리 생성, JPQL 직렬화 생략)
+ * JPQL 문자열이 항상 같으므로 Hibernate 쿼리 플랜 캐시도 매번 적중한다.
+ */
+public class QueryTemplate<T> {
+
+    private final EntityManager em;
+    private final String jpql;
+    private final List<Object> constants;
+    private final FactoryExpression<T> factory;
+
+    private QueryTemplate(EntityManager em, String jpql, List<Object> constants, FactoryExpression<T> factory) {
+        this.em = em;
+        this.jpql = jpql;
+        this.constants = constants;
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> QueryTemplate<T> of(EntityManager em, JPAQuery<T> query) {
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+
+        Expression<?> projection = query.getMetadata().getProjection();
+        FactoryExpression<T> factory = projection instanceof FactoryExpression
+                ? FactoryExpressionUtils.wrap((FactoryExpression<T>) projection)
+                : null;
+        return new QueryTemplate<>(em, serializer.toString(),
+                Collections.unmodifiableList(new ArrayList<>(serializer.getConstants())), factory);
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public Binding<T> bind() {
+        return new Binding<>(this);
+    }
+
+    public static class Binding<T> {
+
+        private final QueryTemplate<T> template;
+        private final Map<ParamExpression<?>, Object> params = new HashMap<>();
+        private Long offset;
+        private Long limit;
+
+        private Binding(QueryTemplate<T> template) {
+            this.template = template;
+        }
+
+        //쿼리 모양(shape)에 없는 Param은 무시된다
+        public <V> Binding<T> set(ParamExpression<V> param, V value) {
+            params.put(param, value);
+            return this;
+        }
+
+        public Binding<T> offset(long offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        public Binding<T> limit(long limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public List<T> fetch() {
+            List<?> rows = createQuery().getResultList();
+            if (template.factory == null) {
+                return (List<T>) rows;
+            }
+            List<T> result = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                result.add(toResult(row));
+            }
+            return result;
+        }
+
+        /**
+         * 결과를 리스트로 모으지 않고 forward-only 커서로 한 row씩 넘긴다. (대용량 export용)
+         * clearEvery row마다 영속성 컨텍스트를 비워서 row 수와 상관없이 메모리 사용량을 일정하게 유지한다.
+         * 트랜잭션 안에서 호출해야 한다.
+         *
+         * MySQL 드라이버는 fetchSize를 무시하고 결과 전체를 메모리로 읽으므로 Integer.MIN_VALUE(행 단위 스트리밍)로 바꾼다.
+         * (url의 useCursorFetch=true는 모든 쿼리를 서버 prepared statement로 바꾸므로 쓰지 않음)
+         * 스트리밍 중에는 같은 커넥션으로 다른 쿼리를 실행할 수 없으므로 action에서 지연 로딩 등을 하면 안 된다.
+         */
+        public long scroll(int fetchSize, int clearEvery, Consumer<? super T> action) {
+            Assert.isTrue(fetchSize > 0, "fetchSize must be positive: " + fetchSize);
+            Assert.isTrue(clearEvery > 0, "clearEvery must be positive: " + clearEvery);
+            org.hibernate.query.Query<?> query = createQuery().unwrap(org.hibernate.query.Query.class)
+                    .setFetchSize(isMySql() ? Integer.MIN_VALUE : fetchSize)
+                    .setReadOnly(true);
+
+            long count = 0;
+            try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    Object[] row = results.get();
+                    action.accept(toResult(row.length == 1 ? row[0] : row));
+                    if (++count % clearEvery == 0) {
+                        template.em.clear();
+                    }
+                }
+            }
+            return count;
+        }
+
+        private boolean isMySql() {
+            return template.em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof MySQLDialect;
+        }
+
+        private Query createQuery() {
+            Query query = template.em.createQuery(template.jpql);
+            JPAUtil.setConstants(query, template.constants, params);
+            if (offset != null) {
+                query.setFirstResult(Math.toIntExact(offset));
+            }
+            if (limit != null) {
+                query.setMaxResults(Math.toIntExact(limit));
+            }
+            return query;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T toResult(Object row) {
+            if (template.factory == null) {
+                return (T) row;
+            }
+            return template.factory.newInstance(row instanceof Object[] ? (Object[]) row : new Object[]{row});
+        }
+    }
+}
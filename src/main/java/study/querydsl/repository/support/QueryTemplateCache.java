@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 쿼리 모양(shape)별 QueryTemplate 캐시
+ * ex) MemberSearchCondition은 조건 4개가 있거나 없거나 -> 16가지 모양
+ *
+ * 메트릭
+ * querydsl.template.cache{query, result=hit|miss} : 캐시 적중/미스 횟수
+ * querydsl.template.build{query}                  : 미스일 때 식 트리 생성 + JPQL 직렬화 시간
+ * -> 적중 횟수 * build 평균 시간 = 아낀 CPU 시간
+ */
+@Component
+public class QueryTemplateCache {
+
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, QueryTemplate<?>> templates = new ConcurrentHashMap<>();
+
+    public QueryTemplateCache(EntityManager em, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("querydsl.template.cache.size", Tags.empty(), templates);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> QueryTemplate<T> get(String name, Object shape, Supplier<JPAQuery<T>> query) {
+        String key = name + ":" + shape;
+        QueryTemplate<T> template = (QueryTemplate<T>) templates.get(key);
+        if (template != null) {
+            meterRegistry.counter("querydsl.template.cache", "query", name, "result", "hit").increment();
+            return template;
+        }
+
+        meterRegistry.counter("querydsl.template.cache", "query", name, "result", "miss").increment();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        template = (QueryTemplate<T>) templates.computeIfAbsent(key, k -> QueryTemplate.of(em, query.get()));
+        sample.stop(meterRegistry.timer("querydsl.template.build", "query", name));
+        return template;
+    }
+}
@@ -1,11 +1,16 @@
 package study.querydsl.repository.support;
 import com.querydsl.core.types.EntityPath;import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import
         org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
@@ -16,10 +21,16 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static org.springframework.data.support.PageableExecutionUtils.*;
+import static study.querydsl.monitoring.RepositoryInvocation.trackCount;
 
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
@@ -34,6 +45,8 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private JPAQueryFactory readOnlyQueryFactory;
+    private CountStrategy countStrategy;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -51,6 +64,12 @@ public abstract class Querydsl4RepositorySupport {
         this.querydsl = new Querydsl(entityManager, new
                 PathBuilder<>(path.getType(), path.getMetadata()));
         this.queryFactory = new JPAQueryFactory(entityManager);
+        this.readOnlyQueryFactory = new ReadOnlyJPAQueryFactory(entityManager);
+    }
+
+    @Autowired
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
     }
 
     @PostConstruct
@@ -58,12 +77,19 @@ public abstract class Querydsl4RepositorySupport {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(readOnlyQueryFactory, "ReadOnlyQueryFactory must not be null!");
+        Assert.notNull(countStrategy, "CountStrategy must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
         return queryFactory;
     }
 
+    //조회 전용 -> 읽은 엔티티는 read-only (스냅샷, dirty checking 없음)
+    protected JPAQueryFactory getReadOnlyQueryFactory() {
+        return readOnlyQueryFactory;
+    }
+
     protected Querydsl getQuerydsl() {
         return querydsl;
     }
@@ -80,19 +106,102 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    //엔티티 그래프 적용 (FetchPlan 참고)
+    protected <T> JPAQuery<T> withFetchPlan(JPAQuery<T> query, FetchPlan fetchPlan) {
+        return fetchPlan.applyTo(query, getEntityManager());
+    }
+
+    protected <T> JPAQuery<T> selectReadOnly(Expression<T> expr) {
+        return getReadOnlyQueryFactory().select(expr);
+    }
+
+    protected <T> JPAQuery<T> selectFromReadOnly(EntityPath<T> from) {
+        return getReadOnlyQueryFactory().selectFrom(from);
+    }
+
 
     //밑에 2개가 핵심
     //content 쿼리만 불러오는거
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
         List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return getPage(content, pageable, () -> jpaQuery.fetch().size());
+        TotalCount total = countStrategy.totalOf(getQueryFactory(), jpaQuery);
+        return total.mark(getPage(content, pageable, trackCount(total)));
     }
     //content 쿼리랑 count 쿼리 둘 다 불러오는거
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
         List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
         JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return getPage(content, pageable, () -> countResult.fetch().size());
+        TotalCount total = countStrategy.totalOf(getQueryFactory(), countResult);
+        return total.mark(getPage(content, pageable, trackCount(total)));
+    }
+
+    //지연 조인(deferred join) 페이징
+    //1단계: 같은 조건으로 id만 offset/limit 페이징 (필요없는 조인 제거 -> 커버링 인덱스로 처리 가능)
+    //2단계: id in (...)으로 해당 페이지 row만 조회한 뒤 1단계 순서대로 정렬
+    //offset이 클 때 버려지는 row가 넓은 row가 아니라 id만이라서 훨씬 싸다
+    protected <T> Page<T> applyDeferredJoinPagination(Pageable pageable, NumberPath<Long> id, Function<T, Long> idOf, Function<JPAQueryFactory, JPAQuery<T>> contentQuery) {
+        JPAQuery<T> jpaContentQuery = contentQuery.apply(getQueryFactory());
+        JPAQuery<Long> idQuery = CountQueryRewriter.select(getQueryFactory(), jpaContentQuery, id);
+        List<Long> ids = getQuerydsl().applyPagination(pageable, idQuery).fetch();
+
+        List<T> content = ids.isEmpty()
+                ? new ArrayList<>()
+                : jpaContentQuery.where(id.in(ids)).fetch();
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            order.put(ids.get(i), i);
+        }
+        content.sort(Comparator.comparing(row -> order.get(idOf.apply(row))));
+
+        TotalCount total = countStrategy.totalOf(getQueryFactory(), idQuery);
+        return total.mark(getPage(content, pageable, trackCount(total)));
+    }
+
+    //Slice -> 전체 개수가 필요 없을 때 (무한 스크롤)
+    //size + 1개를 조회해서 다음 페이지 여부만 판단, count 쿼리 안 나감
+    protected <T> Slice<T> applySlicePagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery<T>> contentQuery) {
+        JPAQuery<T> jpaQuery = contentQuery.apply(getQueryFactory());
+        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery)
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+        return toSlice(content, pageable);
+    }
+
+    //키셋(seek) 페이징 -> offset 없이 커서 다음부터 size + 1개 조회, count 쿼리 없음
+    protected <T> KeysetPage<T> applyKeysetPagination(Keyset<T> keyset, String cursor, int size, Function<JPAQueryFactory, JPAQuery<T>> contentQuery) {
+        List<T> fetched = contentQuery.apply(getQueryFactory())
+                .where(keyset.after(cursor))
+                .orderBy(keyset.orderBy())
+                .limit(KeysetPage.fetchSize(size))
+                .fetch();
+        return KeysetPage.of(fetched, size, keyset);
+    }
+
+    //size + 1개 조회 결과 -> Slice (Querydsl4RepositorySupport를 상속하지 않는 리포지토리에서도 사용)
+    public static <T> Slice<T> toSlice(List<T> fetched, Pageable pageable) {
+        boolean hasNext = fetched.size() > pageable.getPageSize();
+        List<T> content = hasNext ? fetched.subList(0, pageable.getPageSize()) : fetched;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    //벌크 수정 -> em.clear() 없이 조건에 맞는 관리 엔티티만 다시 읽음 (BulkOperations 참고)
+    protected <T> long bulkUpdate(EntityPath<T> target, Predicate predicate, Consumer<JPAUpdateClause> changes) {
+        return bulkUpdate(target, predicate, changes, BulkOperations.Sync.REFRESH);
+    }
+
+    protected <T> long bulkUpdate(EntityPath<T> target, Predicate predicate, Consumer<JPAUpdateClause> changes, BulkOperations.Sync sync) {
+        return BulkOperations.update(getEntityManager(), getQueryFactory(), target, predicate, changes, sync);
+    }
+
+    //벌크 삭제 -> 조건에 맞는 관리 엔티티만 detach
+    protected <T> long bulkDelete(EntityPath<T> target, Predicate predicate) {
+        return BulkOperations.delete(getEntityManager(), getQueryFactory(), target, predicate);
+    }
+
+    //fetch().size() 대신 select count(...) 쿼리로 전체 개수 조회
+    protected long fetchCount(JPAQuery<?> query) {
+        return CountQueryRewriter.fetchCount(getEntityManager(), getQueryFactory(), query);
     }
 }
@@ -0,0 +1,35 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 조회 전용 JPAQueryFactory
+ * 여기서 만든 쿼리로 읽은 엔티티는 Hibernate read-only로 로딩된다.
+ * -> 스냅샷(dirty checking용 원본 값)을 남기지 않고, flush 때 비교 대상에서도 빠진다.
+ * 대신 읽은 엔티티를 수정해도 DB에 반영되지 않는다. (이미 영속성 컨텍스트에 있던 엔티티는 그대로)
+ *
+ * 트랜잭션이 없거나 readOnly 트랜잭션이면 쿼리 전 자동 flush도 생략한다. (FlushMode.COMMIT)
+ * 쓰기 트랜잭션 안에서는 아직 flush 안 된 변경이 조회 결과에 보여야 하므로 AUTO 그대로 둔다.
+ */
+public class ReadOnlyJPAQueryFactory extends JPAQueryFactory {
+
+    public ReadOnlyJPAQueryFactory(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        JPAQuery<?> query = super.query().setHint(QueryHints.READ_ONLY, true);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setHint(QueryHints.FLUSH_MODE, FlushMode.COMMIT);
+        }
+        return query;
+    }
+}
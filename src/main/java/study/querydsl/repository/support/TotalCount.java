@@ -0,0 +1,57 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.Page;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 페이징 전체 개수 (정확한 값인지 예상값인지 같이 기억)
+ * PageableExecutionUtils.getPage 에는 LongSupplier로 넘기고, 만들어진 Page를 mark()로 감싼다.
+ * count가 생략된 경우(마지막 페이지 등)에는 getAsLong()이 호출되지 않으므로 정확한 값.
+ */
+public class TotalCount implements LongSupplier {
+
+    private final Supplier<Result> counter;
+    private volatile boolean approximate;
+
+    TotalCount(Supplier<Result> counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public long getAsLong() {
+        Result result = counter.get();
+        approximate = result.approximate;
+        return result.total;
+    }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public <T> Page<T> mark(Page<T> page) {
+        if (!approximate) {
+            return page;
+        }
+        return new ApproximatePage<>(page.getContent(), page.getPageable(), page.getTotalElements());
+    }
+
+    static Result exact(long total) {
+        return new Result(total, false);
+    }
+
+    static Result approximate(long total) {
+        return new Result(total, true);
+    }
+
+    static class Result {
+        private final long total;
+        private final boolean approximate;
+
+        private Result(long total, boolean approximate) {
+            this.total = total;
+            this.approximate = approximate;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.StatementCounter;
+import study.querydsl.monitoring.StatementStats;
+import study.querydsl.repository.TeamIdDictionary;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//READ_WRITE 캐시는 커밋된 뒤에 다른 트랜잭션에서 보이므로 테스트 트랜잭션 대신 단계마다 커밋
+@SpringBootTest
+class TeamSecondLevelCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    LocalRegionFactory regionFactory;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    Long teamAId;
+    Long teamBId;
+    Long member1Id;
+
+    @BeforeEach
+    public void before() {
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        //벌크 삭제는 이벤트가 안 나가므로 팀 이름 사전도 직접 비움
+        teamIdDictionary.invalidate();
+    }
+
+    //한 번 읽은 팀은 다음 트랜잭션에서 DB 조회 없이 캐시에서
+    @Test
+    public void findTeamHitsCache() {
+        LocalCacheStorage region = regionFactory.getRegion("team");
+        tx.executeWithoutResult(status -> em.find(Team.class, teamAId));
+        long hits = region.hitCount();
+
+        StatementStats stats = StatementCounter.open();
+        try {
+            String name = tx.execute(status -> em.find(Team.class, teamAId).getName());
+            assertThat(name).isEqualTo("teamA");
+        } finally {
+            StatementCounter.close(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(0);
+        assertThat(region.hitCount()).isEqualTo(hits + 1);
+    }
+
+    //팀 이름이 바뀌면 캐시된 이전 이름이 보이면 안 됨
+    @Test
+    public void updateInvalidatesCachedTeam() {
+        tx.executeWithoutResult(status -> em.find(Team.class, teamAId));
+
+        tx.executeWithoutResult(status -> em.find(Team.class, teamAId).setName("teamA2"));
+
+        String name = tx.execute(status -> em.find(Team.class, teamAId).getName());
+        assertThat(name).isEqualTo("teamA2");
+    }
+
+    //changeTeam은 member.team_id만 바꿈 -> 캐시된 팀을 거쳐도 바뀐 소속이 보여야 함
+    @Test
+    public void changeTeamVisibleThroughCachedTeam() {
+        tx.executeWithoutResult(status -> em.find(Team.class, teamBId));
+
+        tx.executeWithoutResult(status -> em.find(Member.class, member1Id).changeTeam(em.find(Team.class, teamBId)));
+
+        tx.executeWithoutResult(status -> {
+            assertThat(em.find(Member.class, member1Id).getTeam().getName()).isEqualTo("teamB");
+            assertThat(em.find(Team.class, teamBId).getMembers()).extracting("username")
+                    .containsExactlyInAnyOrder("member1", "member2");
+        });
+    }
+
+    //LRU: 최대 개수를 넘으면 가장 오래 안 쓴 항목부터 제거
+    @Test
+    public void storageEvictsLeastRecentlyUsed() {
+        LocalCacheStorage storage = new LocalCacheStorage("test", 2, 0);
+        storage.putIntoCache("a", 1, null);
+        storage.putIntoCache("b", 2, null);
+        storage.getFromCache("a", null);
+        storage.putIntoCache("c", 3, null);
+
+        assertThat(storage.contains("a")).isTrue();
+        assertThat(storage.contains("b")).isFalse();
+        assertThat(storage.evictionCount()).isEqualTo(1);
+    }
+}
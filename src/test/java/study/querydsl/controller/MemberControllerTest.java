@@ -0,0 +1,62 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    //size가 범위 밖이면 400 (0이면 subList/get(-1), 너무 크면 limit(size + 1) 문제)
+    @Test
+    public void keysetSizeOutOfRange() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "100"))
+                .andExpect(status().isOk());
+    }
+
+    //해석할 수 없는 커서는 500이 아니라 400
+    @Test
+    public void keysetGarbageCursor() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "!!not-base64!!"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", encode("no-separator")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", encode("abc:10")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", encode("1:ten")))
+                .andExpect(status().isBadRequest());
+    }
+
+    //지원하지 않는 형식을 NDJSON으로 대신 내보내지 않음
+    @Test
+    public void exportUnknownFormat() throws Exception {
+        mockMvc.perform(get("/members/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/export").param("format", "csv"))
+                .andExpect(status().isOk());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
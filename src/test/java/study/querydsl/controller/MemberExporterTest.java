@@ -0,0 +1,57 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberExporterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExporter memberExporter;
+
+    //마지막 줄까지 줄바꿈으로 끝나야 이어 붙이거나 줄 단위로 읽을 수 있음
+    @Test
+    public void ndjsonEndsWithNewline() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 91, teamA));
+        em.persist(new Member("member2", 92, teamA));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(91);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberExporter.writeNdjson(condition, out);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson).endsWith("}\n");
+        assertThat(ndjson.split("\n")).hasSize(2)
+                .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+    }
+
+    //0이면 clear 주기 계산에서 0으로 나누게 됨
+    @Test
+    public void invalidSettings() {
+        assertThatThrownBy(() -> new MemberExporter(null, null, 1000, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MemberExporter(null, null, 0, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package study.querydsl.id;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Hello;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//insert가 스레드별 트랜잭션에서 커밋되어야 하므로 테스트 트랜잭션 없이 실행
+//블록 크기는 다른 테스트 컨텍스트가 만든 시퀀스의 increment와 같아야 하므로 optimizer만 바꿈
+//스키마를 다시 만들면(create) 캐시된 다른 컨텍스트의 시퀀스가 처음 값으로 돌아가서 id가 겹치거나 음수가 되므로 update
+@SpringBootTest(properties = {"querydsl.id.hello.optimizer=pooled-lo", "spring.jpa.hibernate.ddl-auto=update"})
+class PooledIdGeneratorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Hello").executeUpdate());
+    }
+
+    @Test
+    public void perEntitySettings() {
+        SequenceStyleGenerator member = generatorOf(Member.class);
+        SequenceStyleGenerator hello = generatorOf(Hello.class);
+
+        //엔티티별 설정이 없으면 기본값 (테스트 설정에는 querydsl.id가 없음)
+        assertThat(member.getOptimizer().getIncrementSize()).isEqualTo(PooledIdGenerator.DEFAULT_BLOCK_SIZE);
+        assertThat(member.getOptimizer().getClass().getSimpleName()).isEqualTo("PooledOptimizer");
+        assertThat(member.getDatabaseStructure().getIncrementSize()).isEqualTo(PooledIdGenerator.DEFAULT_BLOCK_SIZE);
+
+        assertThat(hello.getOptimizer().getIncrementSize()).isEqualTo(PooledIdGenerator.DEFAULT_BLOCK_SIZE);
+        assertThat(hello.getOptimizer().getClass().getSimpleName()).isEqualTo("PooledLoOptimizer");
+    }
+
+    //스레드별로 트랜잭션을 나눠서 insert해도 id가 겹치지 않음
+    @Test
+    public void concurrentInserts() throws Exception {
+        int threads = 8;
+        int insertsPerThread = 200;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < insertsPerThread; i++) {
+                ids.add(tx.execute(status -> {
+                    Hello hello = new Hello();
+                    em.persist(hello);
+                    return hello.getId();
+                }));
+            }
+        });
+
+        assertThat(ids).hasSize(threads * insertsPerThread);
+    }
+
+    private SequenceStyleGenerator generatorOf(Class<?> entityClass) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        return (SequenceStyleGenerator) sessionFactory.getMetamodel().entityPersister(entityClass).getIdentifierGenerator();
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class QueryStatisticsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    QueryStatistics queryStatistics;
+
+    @Autowired
+    QueryStatisticsEndpoint queryStatisticsEndpoint;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void fingerprint() {
+        assertThat(SqlFingerprint.of("/* select m from Member m */ select member0_.id from member member0_ " +
+                "where member0_.username='member1' and member0_.age in (10, 20,30) limit 5"))
+                .isEqualTo("select member0_.id from member member0_ where member0_.username=? and member0_.age in (?) limit ?");
+        assertThat(SqlFingerprint.of("insert into member (age, username) values (1, 'a'), (2, 'b')"))
+                .isEqualTo("insert into member (age, username) values (?, ?)");
+    }
+
+    //검색 조건 4개의 조합 16가지 -> 값이 달라도 모양별로 하나씩
+    @Test
+    public void oneFingerprintPerSearchShape() {
+        //팀 이름 사전을 미리 채워서 사전 조회 쿼리가 섞이지 않도록
+        memberRepository.search(condition(2, "A"));
+        queryStatistics.reset();
+
+        for (int mask = 0; mask < 16; mask++) {
+            memberRepository.search(condition(mask, "A"));
+            memberRepository.search(condition(mask, "B"));
+        }
+
+        List<QueryStat> stats = queryStatistics.getStats();
+        assertThat(stats).hasSize(16);
+        assertThat(stats).allSatisfy(stat -> {
+            assertThat(stat.getCalls()).isEqualTo(2);
+            assertThat(stat.getFingerprint()).doesNotContain("member1", "teama", "teamb");
+            assertThat(stat.getHistogram().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(2);
+        });
+        //조건 없음 -> 4명씩 두 번
+        assertThat(stats).filteredOn(stat -> !stat.getFingerprint().contains("where"))
+                .singleElement()
+                .extracting(QueryStat::getRows)
+                .isEqualTo(8L);
+    }
+
+    //mask 비트별로 username, teamName, ageGoe, ageLoe
+    private static MemberSearchCondition condition(int mask, String variant) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((mask & 1) != 0) {
+            condition.setUsername(variant.equals("A") ? "member1" : "member2");
+        }
+        if ((mask & 2) != 0) {
+            condition.setTeamName("team" + variant);
+        }
+        if ((mask & 4) != 0) {
+            condition.setAgeGoe(variant.equals("A") ? 10 : 20);
+        }
+        if ((mask & 8) != 0) {
+            condition.setAgeLoe(variant.equals("A") ? 30 : 40);
+        }
+        return condition;
+    }
+
+    @Test
+    public void endpointLimit() {
+        memberRepository.search(condition(2, "A"));
+
+        assertThat(queryStatisticsEndpoint.queryStats(0)).isEmpty();
+        assertThat(queryStatisticsEndpoint.queryStats(1)).hasSize(1);
+        assertThatThrownBy(() -> queryStatisticsEndpoint.queryStats(-1))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+    }
+}
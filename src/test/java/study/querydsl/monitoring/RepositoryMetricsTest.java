@@ -0,0 +1,109 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    //첫 페이지에서 컨텐츠가 사이즈보다 작으면 PageableExecutionUtils가 count를 건너뜀
+    @Test
+    public void countSkippedOrExecuted() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        double skipped = countDecisions("skipped");
+        double executed = countDecisions("executed");
+
+        Page<Member> all = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 10));
+        Page<Member> first = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 2));
+
+        assertThat(all.getTotalElements()).isEqualTo(4);
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(countDecisions("skipped")).isEqualTo(skipped + 1);
+        assertThat(countDecisions("executed")).isEqualTo(executed + 1);
+
+        Timer count = meterRegistry.find("repository.count")
+                .tags("repository", "MemberTestRepository", "method", "searchPageByApplyPage")
+                .timer();
+        assertThat(count).isNotNull();
+        assertThat(count.count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void latencyRowsAndShape() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeLoe(30);
+
+        Timer timer = meterRegistry.find("repository.invocations")
+                .tags("repository", "MemberRepositoryImpl", "method", "searchPageComplex",
+                        "shape", "ageLoe+teamName", "page", "0", "exception", "none")
+                .timer();
+        long before = timer == null ? 0 : timer.count();
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).hasSize(3);
+        timer = meterRegistry.get("repository.invocations")
+                .tags("repository", "MemberRepositoryImpl", "method", "searchPageComplex",
+                        "shape", "ageLoe+teamName", "page", "0", "exception", "none")
+                .timer();
+        //Spring Data 프록시 + Impl 두 번이 아니라 한 번만 기록
+        assertThat(timer.count()).isEqualTo(before + 1);
+        assertThat(meterRegistry.get("repository.rows")
+                .tags("repository", "MemberRepositoryImpl", "method", "searchPageComplex", "shape", "ageLoe+teamName")
+                .summary().max()).isEqualTo(3);
+        assertThat(meterRegistry.get("repository.statements")
+                .tags("repository", "MemberRepositoryImpl", "method", "searchPageComplex")
+                .summary().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    private double countDecisions(String decision) {
+        Counter counter = meterRegistry.find("repository.count.decisions")
+                .tags("repository", "MemberTestRepository", "method", "searchPageByApplyPage", "count", decision)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,107 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//threshold 0 -> 모든 statement가 느린 쿼리
+//설정이 다른 컨텍스트라 스키마는 update (캐시된 기본 컨텍스트의 시퀀스를 초기화하지 않게)
+@SpringBootTest(properties = {"querydsl.slow-query.threshold=0ms", "querydsl.slow-query.capacity=3",
+        "querydsl.slow-query.include-values=true", "spring.jpa.hibernate.ddl-auto=update"})
+@Transactional
+class SlowQueryLogTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        //Querydsl 별칭(member1)과 겹치지 않는 이름 (use_sql_comments의 JPQL 주석에 별칭이 들어감)
+        em.persist(new Member("slowUser", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+        slowQueryLog.clear();
+    }
+
+    @Test
+    public void capturesBoundSqlCallSiteAndPlan() throws InterruptedException {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("slowUser");
+        memberRepository.search(condition);
+
+        SlowQuery captured = slowQueryLog.getSlowQueries().stream()
+                .filter(q -> "MemberRepositoryImpl.search".equals(q.getMethod()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(captured.getSql()).contains("'slowUser'");
+        assertThat(captured.getShape()).contains("?").doesNotContain("slowUser");
+
+        //EXPLAIN은 별도 스레드에서 실행
+        long deadline = System.currentTimeMillis() + 5000;
+        while (planOf(captured.getShape()) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        List<?> plan = planOf(captured.getShape());
+        assertThat(plan).isNotEmpty();
+        assertThat(plan.toString()).doesNotContain("error");
+    }
+
+    @Test
+    public void keepsSlowestPerShapeWithinCapacity() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        for (int i = 0; i < 3; i++) {
+            memberRepository.searchPageComplex(condition, PageRequest.of(i, 1));
+            memberRepository.search(condition);
+            condition.setAgeGoe(i);
+        }
+
+        List<SlowQuery> slowQueries = slowQueryLog.getSlowQueries();
+        assertThat(slowQueries).hasSizeLessThanOrEqualTo(3);
+        assertThat(slowQueries).extracting(SlowQuery::getShape).doesNotHaveDuplicates();
+        assertThat(slowQueries).extracting(SlowQuery::getElapsedMillis).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    //기본값은 바인딩 값 없이 보관
+    @Test
+    public void excludesValuesByDefault() {
+        SlowQueryLog log = new SlowQueryLog(null, Duration.ZERO, 3, false, false);
+
+        log.record("select m.id from member m where m.username=?", () -> {
+            throw new AssertionError("바인딩 값 SQL을 만들 필요 없음");
+        }, 1_000_000);
+
+        assertThat(log.getSlowQueries()).extracting(SlowQuery::getSql)
+                .containsExactly("select m.id from member m where m.username=?");
+        log.destroy();
+    }
+
+    private List<?> planOf(String shape) {
+        return slowQueryLog.getSlowQueries().stream()
+                .filter(q -> q.getShape().equals(shape))
+                .map(SlowQuery::getPlan)
+                .findFirst()
+                .orElse(null);
+    }
+}
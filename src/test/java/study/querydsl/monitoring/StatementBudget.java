@@ -0,0 +1,26 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드 본문에서 실행되는 JDBC statement 수 제한
+ * (@BeforeEach에서 실행된 statement는 세지 않음)
+ *
+ * ex) @StatementBudget(max = 1)              -> 2번 이상 나가면 실패
+ *     @StatementBudget(max = 10, maxRepeats = 1) -> 같은 SQL이 2번 이상 나가면 실패 (N+1)
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+public @interface StatementBudget {
+
+    int max();
+
+    //같은 SQL 반복 허용 횟수, -1이면 검사 안 함
+    int maxRepeats() default -1;
+}
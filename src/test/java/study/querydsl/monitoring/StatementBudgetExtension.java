@@ -0,0 +1,44 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * @StatementBudget 처리
+ * 테스트 메서드 실행 직전에 카운트 구간을 열고, 끝나면 닫으면서 제한을 넘었는지 검사한다.
+ */
+public class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), StatementCounter.open());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), StatementStats.class);
+        StatementCounter.close(stats);
+        StatementBudget budget = budgetOf(context);
+        verify(budget.max(), budget.maxRepeats(), stats);
+    }
+
+    static void verify(int max, int maxRepeats, StatementStats stats) {
+        if (stats.getCount() > max) {
+            throw new AssertionError("JDBC statement " + stats.getCount() + "번 실행 (허용 " + max + "번): " + stats.getShapes().keySet());
+        }
+        if (maxRepeats >= 0 && stats.getMaxRepeats() > maxRepeats) {
+            throw new AssertionError("같은 SQL " + stats.getMaxRepeats() + "번 반복 (허용 " + maxRepeats + "번, N+1 의심): " + stats.getMostRepeated());
+        }
+    }
+
+    //메서드에 붙은 게 우선, 없으면 클래스
+    private static StatementBudget budgetOf(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), StatementBudget.class)
+                .orElseGet(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), StatementBudget.class)
+                        .orElseThrow(() -> new IllegalStateException("@StatementBudget 없음")));
+    }
+}
@@ -0,0 +1,206 @@
+package study.querydsl.monitoring;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class StatementCounterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i + "a", 10, team));
+            em.persist(new Member("member" + i + "b", 20, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    //페치 조인 -> 팀 이름까지 쿼리 1번
+    @Test
+    @StatementBudget(max = 1)
+    public void fetchJoinWithinBudget() {
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .fetch();
+
+        assertThat(result).extracting(m -> m.getTeam().getName()).hasSize(6);
+    }
+
+    //회원마다 따로 조회 -> 같은 select가 반복 (N+1)
+    @Test
+    public void repeatedStatementDetected() {
+        StatementStats stats = StatementCounter.open();
+        try {
+            for (String username : new String[]{"member0a", "member1a", "member2a"}) {
+                queryFactory
+                        .selectFrom(member)
+                        .where(member.username.eq(username))
+                        .fetchOne();
+            }
+        } finally {
+            StatementCounter.close(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getMaxRepeats()).isEqualTo(3);
+        assertThat(stats.getMostRepeated()).contains("from member");
+        assertThat(stats.getEntitiesLoaded()).isEqualTo(3);
+        assertThatThrownBy(() -> StatementBudgetExtension.verify(10, 1, stats))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("N+1");
+    }
+
+    @Test
+    public void countHeaders() throws Exception {
+        mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StatementCountFilter.COUNT_HEADER, "1"))
+                .andExpect(header().string(StatementCountFilter.MAX_REPEATS_HEADER, "1"));
+    }
+
+    //X-Debug-Profile이 있을 때만 할당량, statement 수, DB 시간, 로드된 엔티티 수
+    @Test
+    public void profileHeaders() throws Exception {
+        mockMvc.perform(get("/v3/members").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(RequestProfileFilter.ALLOCATED_BYTES_HEADER));
+
+        MvcResult result = mockMvc.perform(get("/v3/members").param("size", "2")
+                        .header(RequestProfileFilter.DEBUG_HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(header().string(RequestProfileFilter.STATEMENTS_HEADER, "2"))
+                .andExpect(header().string(RequestProfileFilter.ENTITIES_LOADED_HEADER, "0"))
+                .andExpect(header().exists(RequestProfileFilter.DB_TIME_HEADER))
+                .andReturn();
+        assertThat(Long.parseLong(result.getResponse().getHeader(RequestProfileFilter.ALLOCATED_BYTES_HEADER)))
+                .isPositive();
+    }
+
+    //setWriteListener를 쓰면 버퍼 없이 원래 스트림으로 넘어감 (헤더 없음)
+    @Test
+    public void profileWriteListener() throws Exception {
+        MockHttpServletResponse target = new MockHttpServletResponse();
+        List<WriteListener> listeners = new ArrayList<>();
+        ServletOutputStream targetStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                target.getOutputStream().write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                listeners.add(listener);
+            }
+        };
+        HttpServletResponse response = new HttpServletResponseWrapper(target) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return targetStream;
+            }
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members");
+        request.addHeader(RequestProfileFilter.DEBUG_HEADER, "true");
+        WriteListener listener = mock(WriteListener.class);
+
+        new RequestProfileFilter(true, DataSize.ofMegabytes(1)).doFilter(request, response, (req, res) -> {
+            res.getOutputStream().write("ab".getBytes());
+            res.getOutputStream().setWriteListener(listener);
+            res.getOutputStream().write('c');
+        });
+
+        assertThat(listeners).containsExactly(listener);
+        assertThat(target.getContentAsString()).isEqualTo("abc");
+        assertThat(target.getHeader(RequestProfileFilter.STATEMENTS_HEADER)).isNull();
+    }
+
+    //본문이 버퍼 한도를 넘으면 그대로 내보내고 헤더는 생략, 꺼져 있으면 X-Debug-Profile이 있어도 헤더 없음
+    @Test
+    public void profileBufferLimitAndSwitch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members");
+        request.addHeader(RequestProfileFilter.DEBUG_HEADER, "true");
+
+        MockHttpServletResponse large = new MockHttpServletResponse();
+        new RequestProfileFilter(true, DataSize.ofBytes(4)).doFilter(request, large,
+                (req, res) -> res.getOutputStream().write("abcdefgh".getBytes()));
+        assertThat(large.getContentAsString()).isEqualTo("abcdefgh");
+        assertThat(large.getHeader(RequestProfileFilter.STATEMENTS_HEADER)).isNull();
+
+        MockHttpServletResponse small = new MockHttpServletResponse();
+        new RequestProfileFilter(true, DataSize.ofBytes(16)).doFilter(request, small,
+                (req, res) -> res.getWriter().write("abcdefgh"));
+        assertThat(small.getContentAsString()).isEqualTo("abcdefgh");
+        assertThat(small.getHeader(RequestProfileFilter.STATEMENTS_HEADER)).isEqualTo("0");
+
+        MockHttpServletResponse disabled = new MockHttpServletResponse();
+        new RequestProfileFilter(false, DataSize.ofMegabytes(1)).doFilter(request, disabled,
+                (req, res) -> res.getWriter().write("abcdefgh"));
+        assertThat(disabled.getContentAsString()).isEqualTo("abcdefgh");
+        assertThat(disabled.getHeader(RequestProfileFilter.STATEMENTS_HEADER)).isNull();
+    }
+
+    //headers=false(기본값)면 응답을 감싸지 않고 헤더도 없음, 메트릭은 그대로 기록
+    @Test
+    public void countHeadersOffByDefault() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new StatementCountFilter(registry, 5, false).doFilter(new MockHttpServletRequest("GET", "/members"), response,
+                (req, res) -> assertThat(res).isSameAs(response));
+
+        assertThat(response.getHeader(StatementCountFilter.COUNT_HEADER)).isNull();
+        assertThat(registry.get("jdbc.statements").summary().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+//청크마다 커밋하므로 테스트 트랜잭션 없이 실행
+@SpringBootTest
+class ChunkedBulkExecutorTest {
+
+    @Autowired
+    ChunkedBulkExecutor executor;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @BeforeEach
+    public void before() {
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 1; i <= 10; i++) {
+                em.persist(new Member("member" + i, i * 10, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from BulkJobCheckpoint").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamIdDictionary.invalidate();
+    }
+
+    //조건에 맞는 9명을 4명씩 -> 4, 4, 1(마지막 청크)
+    @Test
+    public void updateInChunks() {
+        List<ChunkedBulkExecutor.Progress> reports = new ArrayList<>();
+
+        ChunkedBulkExecutor.Progress result = executor
+                .update("age-plus-one", member, member.id, member.age.gt(18),
+                        update -> update.set(member.age, member.age.add(1)))
+                .chunkSize(4)
+                .onProgress(reports::add)
+                .execute();
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getProcessedRows()).isEqualTo(9);
+        assertThat(reports).extracting(ChunkedBulkExecutor.Progress::getProcessedRows).containsExactly(4L, 8L, 9L);
+        assertThat(ages()).containsExactly(10, 21, 31, 41, 51, 61, 71, 81, 91, 101);
+    }
+
+    //중간에 실패해도 커밋된 청크는 유지, 같은 이름으로 다시 실행하면 이어서 처리
+    @Test
+    public void resumeAfterFailure() {
+        assertThatThrownBy(() -> executor
+                .delete("delete-adults", member, member.id, member.age.gt(18))
+                .chunkSize(3)
+                .onProgress(progress -> {
+                    if (progress.getChunks() == 2) {
+                        throw new IllegalStateException("crash");
+                    }
+                })
+                .execute())
+                .hasMessage("crash");
+        assertThat(ages()).hasSize(4);
+
+        ChunkedBulkExecutor.Progress result = executor
+                .delete("delete-adults", member, member.id, member.age.gt(18))
+                .chunkSize(3)
+                .execute();
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getProcessedRows()).isEqualTo(9);
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(ages()).containsExactly(10);
+    }
+
+    @Test
+    public void rateLimited() {
+        ChunkedBulkExecutor.Progress result = executor
+                .update("rename", member, member.id, member.age.gt(0),
+                        update -> update.set(member.username, "renamed"))
+                .chunkSize(5)
+                .rowsPerSecond(20)
+                .execute();
+
+        //첫 청크 5건 이후 20건/초에 맞춰 약 250ms 대기
+        assertThat(result.getProcessedRows()).isEqualTo(10);
+        assertThat(result.getElapsedNanos()).isGreaterThanOrEqualTo(200_000_000L);
+    }
+
+    private List<Integer> ages() {
+        return queryFactory
+                .select(member.age)
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+    }
+}
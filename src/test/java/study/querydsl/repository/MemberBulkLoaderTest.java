@@ -0,0 +1,74 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.monitoring.StatementCounter;
+import study.querydsl.monitoring.StatementStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberBulkLoaderTest {
+
+    @Autowired
+    MemberBulkLoader bulkLoader;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    //JPA 경로: insert가 건마다가 아니라 JDBC 배치로 묶여서 나감
+    @Test
+    public void jpaLoadIsBatched() {
+        StatementStats stats = StatementCounter.open();
+        MemberBulkLoader.Result result;
+        try {
+            result = bulkLoader.load(2, 250, MemberBulkLoader.Mode.JPA);
+        } finally {
+            StatementCounter.close(stats);
+        }
+
+        assertThat(result.getRows()).isEqualTo(252);
+        assertThat(result.getRowsPerSecond()).isPositive();
+        assertThat(memberCount()).isEqualTo(250);
+        assertThat(stats.getCount()).isLessThan(20);
+    }
+
+    //MULTI_ROW 경로와 JPA 경로를 섞어도 id가 겹치지 않음
+    @Test
+    public void multiRowLoadSharesIdGenerator() {
+        bulkLoader.load(2, 250, MemberBulkLoader.Mode.JPA);
+        bulkLoader.load(2, 1200, MemberBulkLoader.Mode.MULTI_ROW);
+
+        assertThat(memberCount()).isEqualTo(1450);
+        assertThat(queryFactory.select(member.id.countDistinct()).from(member).fetchOne()).isEqualTo(1450);
+        assertThat(queryFactory.selectFrom(member).where(member.username.eq("member1199")).fetchOne().getTeam()).isNotNull();
+    }
+
+    //잘못된 값은 아무것도 넣기 전에 거절
+    @Test
+    public void invalidArguments() {
+        assertThatThrownBy(() -> bulkLoader.load(0, 10, MemberBulkLoader.Mode.JPA))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bulkLoader.load(-1, 0, MemberBulkLoader.Mode.JPA))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bulkLoader.load(1, -1, MemberBulkLoader.Mode.MULTI_ROW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bulkLoader.load(1, 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MemberBulkLoader(null, null, null, 0, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MemberBulkLoader(null, null, null, 1000, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(memberCount()).isZero();
+    }
+
+    private long memberCount() {
+        return queryFactory.select(member.count()).from(member).fetchOne();
+    }
+}
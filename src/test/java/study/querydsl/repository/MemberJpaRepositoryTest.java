@@ -12,6 +12,7 @@ import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -67,4 +68,44 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
-}
\ No newline at end of file
+    //같은 조건 모양이면 캐시된 템플릿을 재사용 -> 값만 다르게 바인딩되어야 함
+    @Test
+    public void searchTemplateBinding(){
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setUsername("member1");
+        MemberSearchCondition second = new MemberSearchCondition();
+        second.setUsername("member2");
+
+        assertThat(memberJpaRepository.search(first)).extracting("username").containsExactly("member1");
+        assertThat(memberJpaRepository.search(second)).extracting("username").containsExactly("member2");
+        assertThat(memberJpaRepository.search(new MemberSearchCondition())).hasSize(2);
+    }
+
+    @Test
+    public void scrollTest(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        List<MemberTeamDto> exported = new ArrayList<>();
+
+        //1건마다 clear 해도 커서는 계속 읽을 수 있어야 함
+        long count = memberJpaRepository.scroll(condition, 1, 1, exported::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(exported).extracting("teamName").containsOnly("teamA");
+    }
+
+}
@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.ApproximatePage;
+import study.querydsl.repository.support.ExplainRowEstimator;
+
+import javax.persistence.EntityManager;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+//EXPLAIN 예상값은 DB와 통계에 따라 달라지므로 estimator를 대신해서 확인
+//설정이 다른 컨텍스트라 스키마는 update (캐시된 기본 컨텍스트의 시퀀스를 초기화하지 않게)
+@SpringBootTest(properties = {"querydsl.count.strategy=estimate", "querydsl.count.estimate-threshold=100",
+        "spring.jpa.hibernate.ddl-auto=update"})
+@Transactional
+class MemberRepositoryEstimateCountTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @MockBean
+    ExplainRowEstimator estimator;
+
+    private MemberSearchCondition before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 4; i++) {
+            em.persist(new Member("member" + i, 10 + i, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        return condition;
+    }
+
+    @Test
+    public void totalApproximate() throws Exception {
+        MemberSearchCondition condition = before();
+        given(estimator.estimate(any())).willReturn(OptionalLong.of(5000));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        assertThat(result).isInstanceOf(ApproximatePage.class);
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getTotalElements()).isEqualTo(5000);
+        assertThat(objectMapper.writeValueAsString(result)).contains("\"totalApproximate\":true");
+    }
+
+    //teamName 조건 (팀 id IN 목록)도 같은 방식으로 예상값 사용
+    @Test
+    public void totalApproximateWithTeamName() throws Exception {
+        MemberSearchCondition condition = before();
+        condition.setTeamName("teamA");
+        given(estimator.estimate(any())).willReturn(OptionalLong.of(5000));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        assertThat(result).isInstanceOf(ApproximatePage.class);
+        assertThat(result.getContent()).extracting("teamName").containsOnly("teamA");
+        assertThat(objectMapper.writeValueAsString(result)).contains("\"totalApproximate\":true");
+    }
+
+    @Test
+    public void totalExactBelowThreshold() throws Exception {
+        MemberSearchCondition condition = before();
+        given(estimator.estimate(any())).willReturn(OptionalLong.of(50));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        assertThat(result).isNotInstanceOf(ApproximatePage.class);
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(objectMapper.writeValueAsString(result)).doesNotContain("totalApproximate");
+    }
+}
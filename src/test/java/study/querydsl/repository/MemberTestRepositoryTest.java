@@ -0,0 +1,208 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.StatementCounter;
+import study.querydsl.monitoring.StatementStats;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberQueries.selectFromMember;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    //id 페이징 순서(나이 내림차순)가 DTO 조회 후에도 유지되어야 함
+    @Test
+    public void deferredJoinPagination() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<MemberTeamDto> result = memberTestRepository.applyDeferredJoinPagination(condition, pageRequest);
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+        assertThat(result.getContent()).extracting("teamName").containsExactly("teamB", "teamB", "teamA");
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void applyPaginationWithTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        Page<Member> result = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    //team을 참조하지 않으면 조인하지 않음
+    @Test
+    public void teamJoinOnlyWhenReferenced() {
+        String withoutTeam = selectFromMember(queryFactory, member.id, member.age.goe(20)).toString();
+        String withTeam = selectFromMember(queryFactory, member.id, team.name.eq("teamA")).toString();
+
+        assertThat(withoutTeam).doesNotContain("join");
+        assertThat(withTeam).contains("left join member1.team as team");
+    }
+
+    //없는 팀 이름이면 DB 조회 없이 빈 결과
+    @Test
+    public void unknownTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamX");
+
+        Page<Member> result = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(0);
+    }
+
+    //사전을 채운 뒤 같은 트랜잭션에서 추가한 팀도 바로 조회되어야 함
+    @Test
+    public void teamAddedAfterDictionaryLoaded() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        assertThat(memberTestRepository.applyPagination2(condition, PageRequest.of(0, 10)).getContent()).isEmpty();
+
+        Team teamC = new Team("teamC");
+        em.persist(teamC);
+        em.persist(new Member("member5", 50, teamC));
+
+        Page<Member> result = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member5");
+    }
+
+    //read-only로 읽은 엔티티는 수정해도 flush 때 반영되지 않음
+    @Test
+    public void basicSelectIsReadOnly() {
+        em.flush();
+        em.clear();
+
+        List<Member> result = memberTestRepository.basicSelect();
+        Session session = em.unwrap(Session.class);
+        assertThat(result).allMatch(session::isReadOnly);
+
+        result.get(0).setAge(99);
+        em.flush();
+        em.clear();
+
+        assertThat(memberTestRepository.basicSelectFrom()).extracting("age").doesNotContain(99);
+    }
+
+    //엔티티 그래프 -> team까지 쿼리 1번
+    @Test
+    public void fetchPlanLoadsTeam() {
+        em.flush();
+        em.clear();
+
+        StatementStats stats = StatementCounter.open();
+        try {
+            List<Member> result = memberTestRepository.basicSelectWithTeam();
+            assertThat(result).extracting(m -> m.getTeam().getName()).containsOnly("teamA", "teamB");
+        } finally {
+            StatementCounter.close(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(1);
+    }
+
+    //지연 로딩도 팀 수만큼이 아니라 IN (...) 한 번으로 초기화 (default_batch_fetch_size)
+    @Test
+    public void lazyAssociationsAreBatchFetched() {
+        em.flush();
+        em.clear();
+
+        StatementStats stats = StatementCounter.open();
+        try {
+            List<Team> teams = queryFactory.selectFrom(team).fetch();
+            teams.forEach(t -> t.getMembers().size());
+            em.clear();
+
+            List<Member> members = memberTestRepository.basicSelectFrom();
+            members.forEach(m -> m.getTeam().getName());
+        } finally {
+            StatementCounter.close(stats);
+        }
+
+        //팀 조회 + members 배치 1번, 회원 조회 + team 배치 1번
+        assertThat(stats.getCount()).isEqualTo(4);
+        assertThat(stats.getMaxRepeats()).isEqualTo(1);
+    }
+
+    //em.clear() 없이 조건에 맞는 회원만 DB 값으로 갱신, 나머지는 그대로 관리 상태
+    @Test
+    public void bulkUpdateRefreshesOnlyMatching() {
+        List<Member> members = memberTestRepository.basicSelectFrom();
+        Member member1 = members.stream().filter(m -> m.getAge() == 10).findFirst().get();
+        Member member3 = members.stream().filter(m -> m.getAge() == 30).findFirst().get();
+        //flush 안 된 변경도 조건 판단과 벌크 쿼리에 반영되어야 함
+        member3.setAge(5);
+
+        long count = memberTestRepository.renameYoungerThan(28, "비회원");
+
+        assertThat(count).isEqualTo(3);
+        assertThat(member1.getUsername()).isEqualTo("비회원");
+        assertThat(member3.getUsername()).isEqualTo("비회원");
+        assertThat(em.contains(member1)).isTrue();
+        assertThat(members).filteredOn(m -> m.getAge() == 40)
+                .allSatisfy(m -> {
+                    assertThat(m.getUsername()).isEqualTo("member4");
+                    assertThat(em.contains(m)).isTrue();
+                });
+    }
+
+    @Test
+    public void bulkDeleteDetachesOnlyMatching() {
+        List<Member> members = memberTestRepository.basicSelectFrom();
+        Team teamA = members.get(0).getTeam();
+
+        long count = memberTestRepository.deleteOlderThan(25);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(members).filteredOn(m -> m.getAge() > 25).noneMatch(em::contains);
+        assertThat(members).filteredOn(m -> m.getAge() <= 25).allMatch(em::contains);
+        assertThat(em.contains(teamA)).isTrue();
+        assertThat(memberTestRepository.basicSelectFrom()).extracting("username").containsOnly("member1", "member2");
+    }
+}
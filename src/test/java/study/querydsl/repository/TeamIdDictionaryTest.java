@@ -0,0 +1,72 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//커밋 시점이 중요하므로 테스트 트랜잭션 없이 단계마다 커밋
+@SpringBootTest
+class TeamIdDictionaryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Team t where t.name like 'dict%'").executeUpdate());
+        teamIdDictionary.invalidate();
+    }
+
+    //먼저 시작한 REPEATABLE READ 트랜잭션에서 조회해도 커밋된 팀이 보이고, 오래된 사전이 캐시되지 않음
+    @Test
+    public void olderSnapshotDoesNotFillDictionary() {
+        TransactionTemplate repeatableRead = new TransactionTemplate(transactionManager);
+        repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        repeatableRead.executeWithoutResult(status -> {
+            //스냅샷 고정
+            em.createQuery("select count(t) from Team t").getSingleResult();
+            other.executeWithoutResult(s -> em.persist(new Team("dictA")));
+
+            assertThat(em.createQuery("select t from Team t where t.name = 'dictA'", Team.class).getResultList()).isEmpty();
+            assertThat(teamIdDictionary.idsOf("dictA")).hasSize(1);
+        });
+
+        assertThat(teamIdDictionary.idsOf("dictA")).hasSize(1);
+    }
+
+    //팀을 바꾼 트랜잭션 안에서는 커밋 전에도 보이고, 롤백되면 공용 사전에 남지 않음
+    @Test
+    public void changesVisibleInOwnTransactionOnly() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Team("dictB"));
+            assertThat(teamIdDictionary.idsOf("dictB")).hasSize(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamIdDictionary.idsOf("dictB")).isEmpty();
+
+        tx.executeWithoutResult(status -> em.persist(new Team("dictB")));
+        assertThat(teamIdDictionary.idsOf("dictB")).hasSize(1);
+    }
+}
@@ -0,0 +1,92 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class CompiledProjectionsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+    }
+
+    @Test
+    public void beanSameAsProjectionsBean() {
+        List<MemberDto> expected = queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        List<MemberDto> result = queryFactory
+                .select(CompiledProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).isEqualTo(expected);
+    }
+
+    //별칭(as)으로 필드명을 맞추는 경우 (QuerydslBasicTest.findUserDtoByField와 같은 쿼리)
+    @Test
+    public void fieldsWithAlias() {
+        QMember memberSub = new QMember("memberSub");
+
+        List<UserDto> result = queryFactory
+                .select(CompiledProjections.fields(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub), "age")))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).extracting("name").containsExactly("member1", "member2");
+        assertThat(result).extracting("age").containsOnly(20);
+    }
+
+    //같은 클래스 + 별칭이면 컴파일된 결과를 재사용, null은 무시
+    @Test
+    public void compiledOncePerTypeAndAliases() {
+        CompiledProjections.bean(MemberDto.class, member.username, member.age);
+        int size = CompiledProjections.cacheSize();
+
+        FactoryExpression<MemberDto> projection = CompiledProjections.bean(MemberDto.class, member.username, member.age);
+        MemberDto dto = projection.newInstance("member1", null);
+
+        assertThat(CompiledProjections.cacheSize()).isEqualTo(size);
+        assertThat(dto.getUsername()).isEqualTo("member1");
+        assertThat(dto.getAge()).isEqualTo(0);
+    }
+}
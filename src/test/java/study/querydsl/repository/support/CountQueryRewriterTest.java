@@ -0,0 +1,112 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class CountQueryRewriterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 10, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 20, teamB));
+        //이름이 member1인 팀 2개 -> 연관관계 없는 조인에서 member1 row가 2개가 됨
+        em.persist(new Team("member1"));
+        em.persist(new Team("member1"));
+        em.flush();
+        em.clear();
+    }
+
+    //연관관계 to-one left join은 빼도 개수가 같으므로 제거
+    @Test
+    public void toOneLeftJoinRemoved() {
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin();
+
+        assertThat(CountQueryRewriter.rewrite(queryFactory, query).getMetadata().getJoins()).hasSize(1);
+        assertThat(CountQueryRewriter.fetchCount(em, queryFactory, query)).isEqualTo(4);
+    }
+
+    //연관관계 없는 엔티티 조인은 row가 늘어날 수 있으므로 유지
+    @Test
+    public void thetaLeftJoinKept() {
+        JPAQuery<Tuple> query = queryFactory
+                .select(member, team)
+                .from(member)
+                .leftJoin(team).on(member.username.eq(team.name));
+
+        assertThat(query.fetch()).hasSize(5);
+        assertThat(CountQueryRewriter.fetchCount(em, queryFactory, query)).isEqualTo(5);
+    }
+
+    //distinct 프로젝션이 root가 아니면 프로젝션 기준으로 센다
+    @Test
+    public void distinctProjection() {
+        JPAQuery<Integer> ages = queryFactory
+                .select(member.age)
+                .distinct()
+                .from(member);
+        JPAQuery<Tuple> ageAndTeam = queryFactory
+                .select(member.age, team.name)
+                .distinct()
+                .from(member)
+                .join(member.team, team);
+
+        assertThat(CountQueryRewriter.fetchCount(em, queryFactory, ages)).isEqualTo(ages.fetch().size()).isEqualTo(2);
+        assertThat(CountQueryRewriter.countsRows(ageAndTeam.getMetadata())).isTrue();
+        assertThat(CountQueryRewriter.fetchCount(em, queryFactory, ageAndTeam)).isEqualTo(ageAndTeam.fetch().size()).isEqualTo(2);
+    }
+
+    //여러 컬럼 distinct, group by -> row를 가져오지 않고 SQL 서브쿼리로 셈 (IN 목록, flush 전 변경도 반영)
+    @Test
+    public void rowCountInSubquery() {
+        em.persist(new Member("member5", 30, em.find(Team.class, teamIdOf("teamB"))));
+
+        JPAQuery<Tuple> ageAndTeam = queryFactory
+                .select(member.age, team.name)
+                .distinct()
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.in("teamA", "teamB"), member.username.startsWith("member"));
+        JPAQuery<Integer> ageGroups = queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.age.goe(20))
+                .groupBy(member.age);
+
+        assertThat(CountQueryRewriter.fetchCount(em, queryFactory, ageAndTeam)).isEqualTo(ageAndTeam.fetch().size()).isEqualTo(3);
+        assertThat(CountQueryRewriter.fetchCount(em, queryFactory, ageGroups)).isEqualTo(ageGroups.fetch().size()).isEqualTo(2);
+    }
+
+    private Long teamIdOf(String name) {
+        return queryFactory.select(team.id).from(team).where(team.name.eq(name)).fetchOne();
+    }
+}
@@ -0,0 +1,184 @@
+package study.querydsl.repository.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamIdDictionary;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class CountStrategyTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    private JPAQuery<Member> query() {
+        return queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20));
+    }
+
+    @Test
+    public void estimateAboveThreshold() {
+        CountStrategy strategy = new CountStrategy(em, countQuery -> OptionalLong.of(1000), "estimate", 100);
+
+        TotalCount total = strategy.totalOf(queryFactory, query());
+
+        assertThat(total.getAsLong()).isEqualTo(1000);
+        assertThat(total.isApproximate()).isTrue();
+    }
+
+    //예상값이 threshold 이하면 정확한 count
+    @Test
+    public void estimateBelowThreshold() {
+        CountStrategy strategy = new CountStrategy(em, countQuery -> OptionalLong.of(50), "estimate", 100);
+
+        TotalCount total = strategy.totalOf(queryFactory, query());
+
+        assertThat(total.getAsLong()).isEqualTo(3);
+        assertThat(total.isApproximate()).isFalse();
+    }
+
+    //exact면 예상값을 보지 않음
+    @Test
+    public void exactIgnoresEstimate() {
+        CountStrategy strategy = new CountStrategy(em, countQuery -> OptionalLong.of(1000), "exact", 100);
+
+        TotalCount total = strategy.totalOf(queryFactory, query());
+
+        assertThat(total.getAsLong()).isEqualTo(3);
+        assertThat(total.isApproximate()).isFalse();
+    }
+
+    //MySQL이 아니면 예상값 없음 -> 정확한 count (테스트 DB와 상관없이 dialect 판단만 바꿈)
+    @Test
+    public void nonMySqlFallsBackToExact() {
+        ExplainRowEstimator nonMySql = new ExplainRowEstimator(em) {
+            @Override
+            boolean supportsExplain() {
+                return false;
+            }
+        };
+        assertThat(nonMySql.estimate(CountQueryRewriter.rewrite(queryFactory, query()))).isEmpty();
+
+        CountStrategy strategy = new CountStrategy(em, nonMySql::estimate, "estimate", 0);
+        TotalCount total = strategy.totalOf(queryFactory, query());
+
+        assertThat(total.getAsLong()).isEqualTo(3);
+        assertThat(total.isApproximate()).isFalse();
+    }
+
+    //EXPLAIN에 넘기는 SQL: 파라미터가 변환된 SQL 위치에 맞게 바인딩되어야 함
+    @Test
+    public void translatedSqlBindsParameters() {
+        JPAQuery<Long> countQuery = CountQueryRewriter.rewrite(queryFactory, queryFactory
+                .selectFrom(member)
+                .join(member.team, team)
+                .where(team.name.eq("teamB"), member.age.goe(20), member.username.ne("member4")));
+
+        Number count = (Number) NativeQueries.wrap(em, countQuery, "", "").orElseThrow().getSingleResult();
+
+        assertThat(count.longValue()).isEqualTo(countQuery.fetchOne()).isEqualTo(1);
+    }
+
+    //teamName 조건 -> member.team.id.in(팀 id 목록): 목록은 SQL의 ? 하나를 원소 수만큼 늘려서 바인딩
+    @Test
+    public void translatedSqlExpandsInList() {
+        //같은 이름의 팀 2개 -> id 2개
+        for (int i = 0; i < 2; i++) {
+            Team sameName = new Team("countTeam");
+            em.persist(sameName);
+            em.persist(new Member("count" + i, 10 + i * 20, sameName));
+        }
+        em.flush();
+        em.clear();
+        List<Long> teamIds = teamIdDictionary.idsOf("countTeam");
+        assertThat(teamIds).hasSize(2);
+
+        JPAQuery<Long> countQuery = CountQueryRewriter.rewrite(queryFactory, queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(member.team.id.in(teamIds), member.age.goe(20)));
+
+        Number count = (Number) NativeQueries.wrap(em, countQuery, "", "").orElseThrow().getSingleResult();
+
+        assertThat(count.longValue()).isEqualTo(countQuery.fetchOne()).isEqualTo(1);
+    }
+
+    //값이 정해지지 않은 Param은 SQL로 옮기지 않음 -> 예상값 없음
+    @Test
+    public void unboundParamSkipsEstimate() {
+        Param<Integer> age = new Param<>(Integer.class, "age");
+        JPAQuery<Long> countQuery = CountQueryRewriter.rewrite(queryFactory, queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(age)));
+
+        assertThat(NativeQueries.wrap(em, countQuery, "", "")).isEmpty();
+    }
+
+    @Test
+    public void markApproximatePage() throws Exception {
+        CountStrategy strategy = new CountStrategy(em, countQuery -> OptionalLong.of(1000), "estimate", 100);
+        TotalCount total = strategy.totalOf(queryFactory, query());
+        Page<String> page = new PageImpl<>(List.of("a", "b"), PageRequest.of(0, 2), total.getAsLong());
+
+        Page<String> marked = total.mark(page);
+
+        assertThat(marked).isInstanceOf(ApproximatePage.class);
+        assertThat(marked.getTotalElements()).isEqualTo(1000);
+        assertThat(objectMapper.writeValueAsString(marked)).contains("\"totalApproximate\":true");
+    }
+
+    //count가 호출되지 않았거나 정확한 값이면 그대로
+    @Test
+    public void markExactPage() {
+        CountStrategy strategy = new CountStrategy(em, countQuery -> OptionalLong.of(1000), "estimate", 100);
+        TotalCount total = strategy.totalOf(queryFactory, query());
+        Page<String> page = new PageImpl<>(List.of("a"), PageRequest.of(0, 2), 1);
+
+        assertThat(total.mark(page)).isSameAs(page);
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelCountExecutorTest {
+
+    ParallelCountExecutor executor = new ParallelCountExecutor(true, 2, 4);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    public void countRunsWhileContentRuns() throws Exception {
+        CountDownLatch countStarted = new CountDownLatch(1);
+
+        Page<String> page = executor.getPage(() -> {
+            //count가 먼저 시작되어야 컨텐츠 조회가 끝남 -> 순차 실행이면 타임아웃
+            await(countStarted);
+            return Arrays.asList("a", "b");
+        }, PageRequest.of(0, 2), () -> {
+            countStarted.countDown();
+            return 10L;
+        });
+
+        assertThat(page.getTotalElements()).isEqualTo(10);
+    }
+
+    @Test
+    public void countCancelledWhenNotNeeded() throws Exception {
+        CountDownLatch countStarted = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch countFinished = new CountDownLatch(1);
+
+        Page<String> page = executor.getPage(() -> {
+            await(countStarted);
+            return Arrays.asList("a");
+        }, PageRequest.of(0, 2), () -> {
+            countStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            } finally {
+                countFinished.countDown();
+            }
+            return 100L;
+        });
+
+        //첫 페이지인데 컨텐츠가 페이지 사이즈보다 작음 -> count 불필요
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(countFinished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(interrupted).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("timeout");
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}